@@ -1,36 +1,70 @@
 package book.store.controller;
 
+import book.store.dto.book.BookDataFormat;
 import book.store.dto.book.BookDto;
+import book.store.dto.book.BookImportResultDto;
 import book.store.dto.book.BookSearchParametersDto;
+import book.store.dto.book.BookStockDto;
 import book.store.dto.book.CreateBookRequestDto;
+import book.store.dto.book.UpdateBookStockRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.version.ResourceVersionDto;
+import book.store.service.BookImportService;
 import book.store.service.BookService;
+import book.store.service.StockService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
 import org.springdoc.core.converters.models.PageableAsQueryParam;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 @Tag(name = "Book", description = "Books related endpoints")
-@RequiredArgsConstructor
 @RestController
 @RequestMapping(value = "/books")
 public class BookController {
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final StockService stockService;
+    private final Duration exportTimeout;
+
+    public BookController(BookService bookService, BookImportService bookImportService,
+                          StockService stockService,
+                          @Value("${book.export.timeout:30m}") Duration exportTimeout) {
+        this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.stockService = stockService;
+        this.exportTimeout = exportTimeout;
+    }
 
     @PostMapping
     @Operation(summary = "Create new book", description = "Create new book")
@@ -40,34 +74,133 @@ public class BookController {
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Update book data", description = "Update book data by id")
+    @Operation(summary = "Update book data", description = "Update book data by id. "
+            + "When If-Match is sent, the update is applied only if one of its ETags "
+            + "matches the current book ETag, otherwise it responds 412")
     @PreAuthorize("hasRole('ADMIN')")
-    public BookDto updateBook(@PathVariable Long id, @RequestBody CreateBookRequestDto bookDto) {
-        return bookService.updateBook(id, bookDto);
+    public BookDto updateBook(@PathVariable Long id,
+                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                              String ifMatch,
+                              @RequestBody CreateBookRequestDto bookDto) {
+        return bookService.updateBook(id, bookDto, ifMatch);
     }
 
     @GetMapping
     @Operation(summary = "Get all books", description = "Get a list of undeleted books"
-            + "with the possibility of sorting and pagination")
+            + "with the possibility of sorting and pagination. With exactCount=false the total "
+            + "is taken from a periodically refreshed row count. Supports conditional requests")
     @PageableAsQueryParam
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public Page<BookDto> getAll(@Parameter(hidden = true) Pageable pageable) {
-        return bookService.findAll(pageable);
+    public Page<BookDto> getAll(@Parameter(hidden = true) Pageable pageable,
+                                @RequestParam(defaultValue = "true") boolean exactCount,
+                                WebRequest webRequest) {
+        if (isNotModified(webRequest, bookService.getCatalogVersion())) {
+            return null;
+        }
+        if (exactCount) {
+            return bookService.findAll(pageable);
+        }
+        return bookService.findAllWithApproximateCount(pageable);
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Get all books with cursor", description = "Get undeleted books "
+            + "ordered by id using keyset pagination. Pass nextCursor to get the next part")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public CursorPageDto<BookDto> getAllByCursor(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20")
+                                                 @Min(1) @Max(100) int size) {
+        return bookService.findAllByCursor(cursor, size);
+    }
+
+    @GetMapping("/{id}/stock")
+    @Operation(summary = "Get book stock", description = "Get units of a book available "
+            + "for orders. Units already allocated to a hot book's in-memory pool are excluded")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BookStockDto getStock(@PathVariable Long id) {
+        return stockService.getStock(id);
+    }
+
+    @PatchMapping("/{id}/stock")
+    @Operation(summary = "Update book stock", description = "Set the stock of a book, or "
+            + "change it atomically by a positive or negative delta. Responds 409 when the "
+            + "delta would make the stock negative")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BookStockDto updateStock(@PathVariable Long id,
+                                    @RequestBody @Valid UpdateBookStockRequestDto requestDto) {
+        return stockService.updateStock(id, requestDto);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all books", description = "Stream all undeleted books "
+            + "with their category ids as NDJSON or CSV")
+    @PreAuthorize("hasRole('ADMIN')")
+    public WebAsyncTask<Void> export(@RequestParam(defaultValue = "NDJSON") BookDataFormat format,
+                                     HttpServletResponse response) {
+        response.setContentType(format.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"books." + format.getExtension() + "\"");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            bookService.exportBooks(format, response.getOutputStream());
+            return null;
+        });
+    }
+
+    @PostMapping("/import")
+    @Operation(summary = "Import books", description = "Create or update books by isbn "
+            + "from an NDJSON or CSV request body, reporting rejected rows by line. "
+            + "A deleted book with an imported isbn is restored. An optional stock column "
+            + "sets the stock; without it new books start at 0 and existing ones keep theirs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BookImportResultDto importBooks(
+            @RequestParam(defaultValue = "NDJSON") BookDataFormat format,
+            InputStream inputStream) throws IOException {
+        return bookImportService.importBooks(format, inputStream);
+    }
+
+    @GetMapping("/suggestions")
+    @Operation(summary = "Suggest titles and authors", description = "Get titles and authors "
+            + "starting with the given prefix, for search box autocomplete")
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public List<String> suggest(@RequestParam @NotBlank String prefix,
+                                @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        return bookService.suggest(prefix, limit);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get one book", description = "Get a book by id")
+    @Operation(summary = "Get one book", description = "Get a book by id. "
+            + "Supports conditional requests")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public BookDto getBookById(@PathVariable Long id) {
+    public BookDto getBookById(@PathVariable Long id, WebRequest webRequest) {
+        if (isNotModified(webRequest, bookService.getVersion(id))) {
+            return null;
+        }
         return bookService.findById(id);
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Search for books", description = "Search for books by given data")
+    @Operation(summary = "Search for books", description = "Search for books by given data. "
+            + "With count=false the total count query is skipped")
+    @PageableAsQueryParam
+    @PreAuthorize("hasAnyRole('USER','ADMIN')")
+    public Slice<BookDto> search(BookSearchParametersDto parameters,
+                                 @RequestParam(defaultValue = "true") boolean count,
+                                 @Parameter(hidden = true) Pageable pageable) {
+        if (count) {
+            return bookService.search(parameters, pageable);
+        }
+        return bookService.searchWithoutCount(parameters, pageable);
+    }
+
+    @GetMapping("/search/scroll")
+    @Operation(summary = "Search for books with cursor", description = "Search for books by "
+            + "given data using keyset pagination. Pass nextCursor to get the next part")
     @PreAuthorize("hasAnyRole('USER','ADMIN')")
-    public Page<BookDto> search(BookSearchParametersDto parameters,
-                                @Parameter(hidden = true) Pageable pageable) {
-        return bookService.search(parameters, pageable);
+    public CursorPageDto<BookDto> searchByCursor(BookSearchParametersDto parameters,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20")
+                                                 @Min(1) @Max(100) int size) {
+        return bookService.searchByCursor(parameters, cursor, size);
     }
 
     @DeleteMapping("/{id}")
@@ -85,4 +218,8 @@ public class BookController {
     public void deleteAll() {
         bookService.deleteAll();
     }
+
+    private boolean isNotModified(WebRequest webRequest, ResourceVersionDto version) {
+        return webRequest.checkNotModified(version.etag(), version.lastModified());
+    }
 }
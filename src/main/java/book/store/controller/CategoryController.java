@@ -3,13 +3,17 @@ package book.store.controller;
 import book.store.dto.book.BookDtoWithoutCategoryIds;
 import book.store.dto.category.CategoryDto;
 import book.store.dto.category.CreateCategoryRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.version.ResourceVersionDto;
 import book.store.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.util.List;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.converters.models.PageableAsQueryParam;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -21,8 +25,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @Tag(name = "Category", description = "Categories related endpoints")
 @RequiredArgsConstructor
@@ -40,10 +46,20 @@ public class CategoryController {
     }
 
     @GetMapping
-    @Operation(summary = "Find all categories", description = "Get a list of undeleted categories")
+    @Operation(summary = "Find all categories", description = "Get a list of undeleted categories."
+            + " With exactCount=false the total is taken from a periodically refreshed row count."
+            + " Supports conditional requests")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public Page<CategoryDto> getAll(@Parameter(hidden = true) Pageable pageable) {
-        return categoryService.findAll(pageable);
+    public Page<CategoryDto> getAll(@Parameter(hidden = true) Pageable pageable,
+                                    @RequestParam(defaultValue = "true") boolean exactCount,
+                                    WebRequest webRequest) {
+        if (isNotModified(webRequest, categoryService.getVersion())) {
+            return null;
+        }
+        if (exactCount) {
+            return categoryService.findAll(pageable);
+        }
+        return categoryService.findAllWithApproximateCount(pageable);
     }
 
     @GetMapping("/{id}")
@@ -70,9 +86,32 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}/books")
-    @Operation(summary = "Find by category", description = "Find books by category")
+    @Operation(summary = "Find by category", description = "Find books by category "
+            + "with the possibility of sorting and pagination. Supports conditional requests")
+    @PageableAsQueryParam
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(@PathVariable Long id) {
-        return categoryService.getBooksByCategoryId(id);
+    public Page<BookDtoWithoutCategoryIds> getBooksByCategoryId(
+            @PathVariable Long id,
+            @Parameter(hidden = true) Pageable pageable,
+            WebRequest webRequest) {
+        if (isNotModified(webRequest, categoryService.getBooksVersion())) {
+            return null;
+        }
+        return categoryService.getBooksByCategoryId(id, pageable);
+    }
+
+    @GetMapping("/{id}/books/scroll")
+    @Operation(summary = "Find by category with cursor", description = "Find books by category "
+            + "ordered by id using keyset pagination. Pass nextCursor to get the next part")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryIdAndCursor(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return categoryService.getBooksByCategoryIdAndCursor(id, cursor, size);
+    }
+
+    private boolean isNotModified(WebRequest webRequest, ResourceVersionDto version) {
+        return webRequest.checkNotModified(version.etag(), version.lastModified());
     }
 }
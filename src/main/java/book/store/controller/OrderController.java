@@ -1,17 +1,34 @@
 package book.store.controller;
 
+import book.store.dto.order.BulkUpdateOrderStatusRequestDto;
+import book.store.dto.order.BulkUpdateOrderStatusResultDto;
+import book.store.dto.order.CheckoutStatusDto;
 import book.store.dto.order.CreateOrderRequestDto;
 import book.store.dto.order.OrderDto;
 import book.store.dto.order.UpdateOrderRequestDto;
 import book.store.dto.orderitem.OrderItemDto;
+import book.store.dto.page.CursorPageDto;
 import book.store.model.User;
+import book.store.service.CheckoutService;
 import book.store.service.OrderService;
+import book.store.service.ShoppingCartService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import java.net.URI;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.converters.models.PageableAsQueryParam;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,17 +36,23 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Tag(name = "Order", description = "Orders related endpoints")
 @RequiredArgsConstructor
 @RestController
 @RequestMapping(value = "/orders")
 public class OrderController {
+    private static final String IDEMPOTENCY_KEY_PATTERN = "[A-Za-z0-9_-]{1,64}";
 
     private final OrderService orderService;
+    private final CheckoutService checkoutService;
+    private final ShoppingCartService shoppingCartService;
 
     @PostMapping
     @Operation(summary = "Create Order", description = "The user can place an order")
@@ -37,19 +60,72 @@ public class OrderController {
     public OrderDto placeOrder(@RequestBody @Valid CreateOrderRequestDto createOrderRequestDto,
                                Authentication authentication) {
         User user = (User) authentication.getPrincipal();
+        shoppingCartService.flushCart(user.getId());
         return orderService.placeOrder(createOrderRequestDto, user);
     }
 
+    @PostMapping("/async")
+    @Operation(summary = "Create Order asynchronously", description = "The user can queue an "
+            + "order. Retrying with the same Idempotency-Key returns the same checkout instead "
+            + "of placing the order twice. The key is 1-64 letters, digits, '-' or '_'. "
+            + "Responds 429 when the checkout queue is full")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<CheckoutStatusDto> placeOrderAsync(
+            @RequestHeader("Idempotency-Key") @Pattern(regexp = IDEMPOTENCY_KEY_PATTERN)
+            String idempotencyKey,
+            @RequestBody @Valid CreateOrderRequestDto createOrderRequestDto,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        URI location = UriComponentsBuilder.fromPath("/orders/checkouts/{idempotencyKey}")
+                .buildAndExpand(idempotencyKey)
+                .encode()
+                .toUri();
+        CheckoutStatusDto status = checkoutService.submit(idempotencyKey,
+                createOrderRequestDto, user);
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(status);
+    }
+
+    @GetMapping("/checkouts/{idempotencyKey}")
+    @Operation(summary = "Get checkout status", description = "The user can check whether their "
+            + "queued order was placed")
+    @PreAuthorize("hasRole('USER')")
+    public CheckoutStatusDto getCheckoutStatus(@PathVariable String idempotencyKey,
+                                               Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return checkoutService.getStatus(idempotencyKey, user);
+    }
+
     @GetMapping
-    @Operation(summary = "Get all orders", description = "The user can get all orders")
+    @Operation(summary = "Get all orders", description = "The user can get their orders page by "
+            + "page, newest first by default")
+    @PageableAsQueryParam
+    @PreAuthorize("hasRole('USER')")
+    public Page<OrderDto> getAllOrders(@Parameter(hidden = true)
+                                       @PageableDefault(size = 20, sort = "id",
+                                               direction = Sort.Direction.DESC)
+                                       Pageable pageable,
+                                       Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return orderService.getAllOrders(user, pageable);
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Get all orders with cursor", description = "The user can get their "
+            + "orders newest first using keyset pagination. Pass nextCursor to get the next part")
     @PreAuthorize("hasRole('USER')")
-    public List<OrderDto> getAllOrders(Authentication authentication) {
+    public CursorPageDto<OrderDto> getAllOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        return orderService.getAllOrders(user);
+        return orderService.getAllOrdersByCursor(user, cursor, size);
     }
 
     @PatchMapping("/{id}")
-    @Operation(summary = "Update order status", description = "The admin can update order status")
+    @Operation(summary = "Update order status", description = "The admin can update order "
+            + "status. Responds 409 when the order can't move to that status")
     @PreAuthorize("hasRole('ADMIN')")
     @ResponseStatus(HttpStatus.OK)
     public void updateOrderStatus(@PathVariable Long id,
@@ -57,6 +133,16 @@ public class OrderController {
         orderService.updateOrderStatus(id, updateOrderDto);
     }
 
+    @PatchMapping
+    @Operation(summary = "Update status of many orders", description = "The admin can move "
+            + "orders selected by ids or by a filter to a new status. Orders that are not found "
+            + "or can't move to that status are skipped and counted as matched but not updated")
+    @PreAuthorize("hasRole('ADMIN')")
+    public BulkUpdateOrderStatusResultDto updateOrderStatuses(
+            @RequestBody @Valid BulkUpdateOrderStatusRequestDto requestDto) {
+        return orderService.updateOrderStatuses(requestDto);
+    }
+
     @GetMapping("/{id}/items")
     @Operation(summary = "Get all order items", description = "The user can get all order items "
             + "from specific order")
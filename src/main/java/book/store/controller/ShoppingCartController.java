@@ -1,6 +1,7 @@
 package book.store.controller;
 
 import book.store.dto.cartitem.CartItemDto;
+import book.store.dto.shoppingcart.CreateCartItemsRequestDto;
 import book.store.dto.shoppingcart.CreateShoppingCartRequestDto;
 import book.store.dto.shoppingcart.ShoppingCartDto;
 import book.store.dto.shoppingcart.UpdateCartItemRequestDto;
@@ -10,6 +11,7 @@ import book.store.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -53,6 +55,18 @@ public class ShoppingCartController {
         return shoppingCartService.addItemToCart(user, shoppingCartRequestDto);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Add many items", description =
+            "User can add many items to his shopping cart in one request")
+    @PreAuthorize("hasRole('USER')")
+    public List<CartItemDto> addItemsToShoppingCart(
+            @RequestBody @Valid CreateCartItemsRequestDto requestDto,
+            Authentication authentication) {
+        String email = authentication.getName();
+        User user = userService.getUserByEmail(email);
+        return shoppingCartService.addItemsToCart(user, requestDto);
+    }
+
     @PutMapping("/cart-items/{id}")
     @Operation(summary = "Update Item quantity", description =
             "User can update item quantity in his shopping cart")
@@ -0,0 +1,8 @@
+package book.store.dto.book;
+
+import java.util.List;
+
+public record BookImportResultDto(long processed, long imported, long failed,
+                                  List<BookImportErrorDto> errors, long durationMillis,
+                                  long rowsPerSecond) {
+}
@@ -0,0 +1,18 @@
+package book.store.dto.book;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import jakarta.validation.constraints.Min;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+@Getter
+@Setter
+@Accessors(chain = true)
+public class BookImportRowDto extends CreateBookRequestDto {
+    @JsonAlias("categoryId")
+    private Set<Long> categoryIds;
+    @Min(value = 0, message = "Stock can't be negative")
+    private Integer stock;
+}
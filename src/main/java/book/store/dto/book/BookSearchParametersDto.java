@@ -4,5 +4,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 
 public record BookSearchParametersDto(@Schema(name = "title", type = "string") String[] title,
                                       @Schema(name = "author", type = "string")String[] author,
-                                      @Schema(name = "isbn", type = "string")String[] isbn) {
+                                      @Schema(name = "isbn", type = "string")String[] isbn,
+                                      @Schema(name = "text", type = "string",
+                                              description = "Full-text search in title, "
+                                                      + "author and description")
+                                      String[] text) {
 }
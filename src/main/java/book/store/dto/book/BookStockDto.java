@@ -0,0 +1,4 @@
+package book.store.dto.book;
+
+public record BookStockDto(Long bookId, int stock) {
+}
@@ -0,0 +1,4 @@
+package book.store.dto.book;
+
+public record BookSuggestionSourceDto(Long id, String title, String author) {
+}
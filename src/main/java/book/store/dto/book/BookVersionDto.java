@@ -0,0 +1,6 @@
+package book.store.dto.book;
+
+import java.time.LocalDateTime;
+
+public record BookVersionDto(Long version, LocalDateTime updatedAt) {
+}
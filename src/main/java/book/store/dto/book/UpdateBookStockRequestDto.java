@@ -0,0 +1,19 @@
+package book.store.dto.book;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class UpdateBookStockRequestDto {
+    @Min(value = 0, message = "Stock can't be negative")
+    private Integer stock;
+    private Integer delta;
+
+    @AssertTrue(message = "Either stock or delta must be given")
+    public boolean isChangeValid() {
+        return (stock == null) != (delta == null);
+    }
+}
@@ -0,0 +1,27 @@
+package book.store.dto.order;
+
+import book.store.model.Order;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BulkUpdateOrderStatusRequestDto {
+    @NotNull(message = "Status can't be empty")
+    private Order.Status status;
+    @Size(max = 20000, message = "Up to 20000 ids can be updated at once")
+    private List<@NotNull Long> ids;
+    private Order.Status currentStatus;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @AssertTrue(message = "Either ids or a filter by currentStatus, from and to must be given")
+    public boolean isSelectionValid() {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        boolean hasFilter = currentStatus != null || from != null || to != null;
+        return hasIds != hasFilter;
+    }
+}
@@ -0,0 +1,4 @@
+package book.store.dto.order;
+
+public record BulkUpdateOrderStatusResultDto(long matched, long updated) {
+}
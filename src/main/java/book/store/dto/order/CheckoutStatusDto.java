@@ -0,0 +1,23 @@
+package book.store.dto.order;
+
+public record CheckoutStatusDto(String idempotencyKey, Status status, Long orderId,
+                                String error) {
+
+    public static CheckoutStatusDto queued(String idempotencyKey) {
+        return new CheckoutStatusDto(idempotencyKey, Status.QUEUED, null, null);
+    }
+
+    public CheckoutStatusDto completed(Long orderId) {
+        return new CheckoutStatusDto(idempotencyKey, Status.COMPLETED, orderId, null);
+    }
+
+    public CheckoutStatusDto failed(String error) {
+        return new CheckoutStatusDto(idempotencyKey, Status.FAILED, null, error);
+    }
+
+    public enum Status {
+        QUEUED,
+        COMPLETED,
+        FAILED
+    }
+}
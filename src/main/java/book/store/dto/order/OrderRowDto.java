@@ -0,0 +1,9 @@
+package book.store.dto.order;
+
+import book.store.model.Order;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderRowDto(Long orderId, Long userId, LocalDateTime orderDate, BigDecimal total,
+                          Order.Status status, Long itemId, Long bookId, Integer quantity) {
+}
@@ -0,0 +1,9 @@
+package book.store.dto.page;
+
+import java.util.List;
+
+public record CursorPageDto<T>(List<T> content, String nextCursor, boolean hasNext) {
+    public <R> CursorPageDto<R> withContent(List<R> newContent) {
+        return new CursorPageDto<>(newContent, nextCursor, hasNext);
+    }
+}
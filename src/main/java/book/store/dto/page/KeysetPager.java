@@ -0,0 +1,27 @@
+package book.store.dto.page;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.Limit;
+
+public final class KeysetPager {
+    private KeysetPager() {
+    }
+
+    public static long lastId(String cursor, long firstPageId) {
+        return cursor == null ? firstPageId : KeysetCursor.decode(cursor).lastId();
+    }
+
+    public static Limit limit(int size) {
+        return Limit.of(size + 1);
+    }
+
+    public static <T> CursorPageDto<T> page(List<T> rows, int size, Function<T, Long> idOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext
+                ? new KeysetCursor(idOf.apply(content.getLast())).encode()
+                : null;
+        return new CursorPageDto<>(content, nextCursor, hasNext);
+    }
+}
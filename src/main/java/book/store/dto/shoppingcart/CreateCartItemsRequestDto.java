@@ -0,0 +1,16 @@
+package book.store.dto.shoppingcart;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CreateCartItemsRequestDto {
+    @NotEmpty(message = "Items cannot be empty")
+    @Size(max = 200, message = "Up to 200 items can be added at once")
+    private List<@Valid CreateShoppingCartRequestDto> items;
+}
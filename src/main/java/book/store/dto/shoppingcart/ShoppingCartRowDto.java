@@ -0,0 +1,5 @@
+package book.store.dto.shoppingcart;
+
+public record ShoppingCartRowDto(Long cartId, Long userId, Long itemId, Long bookId,
+                                 String bookTitle, Integer quantity) {
+}
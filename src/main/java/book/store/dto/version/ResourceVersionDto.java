@@ -0,0 +1,28 @@
+package book.store.dto.version;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Objects;
+
+public record ResourceVersionDto(String etag, long lastModified) {
+    private static final long NOT_MODIFIED_YET = -1;
+
+    public static ResourceVersionDto of(LocalDateTime... updatedAt) {
+        return of("", updatedAt);
+    }
+
+    public static ResourceVersionDto of(String prefix, LocalDateTime... updatedAt) {
+        LocalDateTime latest = Arrays.stream(updatedAt)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .orElse(null);
+        if (latest == null) {
+            return new ResourceVersionDto("\"" + prefix + "0\"", NOT_MODIFIED_YET);
+        }
+        long lastModified = latest.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), latest);
+        return new ResourceVersionDto("\"" + prefix + micros + "\"", lastModified);
+    }
+}
@@ -0,0 +1,7 @@
+package book.store.exception;
+
+public class OrderStatusTransitionException extends RuntimeException {
+    public OrderStatusTransitionException(String message) {
+        super(message);
+    }
+}
@@ -6,32 +6,35 @@ import book.store.dto.book.BookDtoWithoutCategoryIds;
 import book.store.dto.book.CreateBookRequestDto;
 import book.store.model.Book;
 import book.store.model.Category;
+import java.util.Set;
 import java.util.stream.Collectors;
-import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
-import org.mapstruct.MappingTarget;
 
 @Mapper(config = MapperConfig.class)
 public interface BookMapper {
 
-    @Mapping(target = "categoryId", ignore = true)
+    @Mapping(target = "categoryId", source = "categories")
     BookDto toDto(Book book);
 
+    @Mapping(target = "categoryId", source = "categoryIds")
+    BookDto toDto(Book book, Set<Long> categoryIds);
+
     @Mapping(target = "categories", ignore = true)
     @Mapping(target = "deleted", ignore = true)
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     Book toEntity(CreateBookRequestDto bookDto);
 
     BookDtoWithoutCategoryIds toDtoWithoutCategories(Book book);
 
-    @AfterMapping
-    default void setCategoryIds(@MappingTarget BookDto bookDto, Book book) {
-        if (book.getCategories() != null) {
-            bookDto.setCategoryId(
-                    book.getCategories().stream()
-                            .map(Category::getId)
-                            .collect(Collectors.toSet()));
+    default Set<Long> toCategoryIds(Set<Category> categories) {
+        if (categories == null) {
+            return null;
         }
+        return categories.stream()
+                .map(Category::getId)
+                .collect(Collectors.toSet());
     }
 }
@@ -12,5 +12,7 @@ public interface CategoryMapper {
     CategoryDto toDto(Category category);
 
     @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     Category toEntity(CreateCategoryRequestDto categoryDto);
 }
@@ -1,13 +0,0 @@
-package book.store.mapper;
-
-import book.store.config.MapperConfig;
-import book.store.dto.shoppingcart.ShoppingCartDto;
-import book.store.model.ShoppingCart;
-import org.mapstruct.Mapper;
-import org.mapstruct.Mapping;
-
-@Mapper(config = MapperConfig.class, uses = CartItemMapper.class)
-public interface ShoppingCartMapper {
-    @Mapping(target = "userId", source = "user.id")
-    ShoppingCartDto toDto(ShoppingCart shoppingCart);
-}
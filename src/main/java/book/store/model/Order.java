@@ -55,6 +55,14 @@ public class Order {
     public enum Status {
         COMPLETED,
         DELIVERED,
-        PENDING
+        PENDING;
+
+        public Set<Status> getPreviousStatuses() {
+            return switch (this) {
+                case PENDING -> Set.of();
+                case COMPLETED -> Set.of(PENDING);
+                case DELIVERED -> Set.of(PENDING, COMPLETED);
+            };
+        }
     }
 }
@@ -0,0 +1,45 @@
+package book.store.repository;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RowCountCache {
+    private static final String CACHE_NAME = "rowCounts";
+
+    private final LoadingCache<CrudRepository<?, ?>, Long> counts;
+
+    public RowCountCache(@Value("${catalog.row-count.refresh:1m}") Duration refreshInterval,
+                         MeterRegistry meterRegistry) {
+        counts = Caffeine.newBuilder()
+                .refreshAfterWrite(refreshInterval)
+                .recordStats()
+                .build(CrudRepository::count);
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, CACHE_NAME);
+    }
+
+    public long count(CrudRepository<?, ?> repository) {
+        return counts.get(repository);
+    }
+
+    public void evict(CrudRepository<?, ?> repository) {
+        counts.invalidate(repository);
+    }
+
+    public <T> Page<T> toPage(Slice<T> slice, CrudRepository<?, ?> repository) {
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements()
+                : slice.getNumberOfElements();
+        long total = slice.hasNext() ? Math.max(count(repository), seen + 1) : seen;
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+}
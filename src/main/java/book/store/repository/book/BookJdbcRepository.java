@@ -0,0 +1,77 @@
+package book.store.repository.book;
+
+import book.store.dto.book.BookImportRowDto;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@RequiredArgsConstructor
+@Repository
+public class BookJdbcRepository {
+    private static final String UPSERT_BOOK = "INSERT INTO books "
+            + "(title, author, isbn, price, description, cover_image, stock, is_deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, COALESCE(?, 0), false) AS new "
+            + "ON DUPLICATE KEY UPDATE title = new.title, author = new.author, "
+            + "price = new.price, description = new.description, cover_image = new.cover_image, "
+            + "stock = COALESCE(?, books.stock), is_deleted = false, "
+            + "version = books.version + 1, updated_at = CURRENT_TIMESTAMP(6)";
+    private static final String FIND_IDS_BY_ISBN =
+            "SELECT id, isbn FROM books WHERE isbn IN (:isbns)";
+    private static final String DELETE_CATEGORIES =
+            "DELETE FROM books_categories WHERE book_id IN (:bookIds)";
+    private static final String INSERT_CATEGORY =
+            "INSERT INTO books_categories (book_id, category_id) VALUES (?, ?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void upsert(List<BookImportRowDto> books) {
+        jdbcTemplate.getJdbcOperations().batchUpdate(UPSERT_BOOK,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        BookImportRowDto book = books.get(i);
+                        ps.setString(1, book.getTitle());
+                        ps.setString(2, book.getAuthor());
+                        ps.setString(3, book.getIsbn());
+                        ps.setBigDecimal(4, book.getPrice());
+                        ps.setString(5, book.getDescription());
+                        ps.setString(6, book.getCoverImage());
+                        ps.setObject(7, book.getStock(), Types.INTEGER);
+                        ps.setObject(8, book.getStock(), Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return books.size();
+                    }
+                });
+    }
+
+    public Map<String, Long> findIdsByIsbn(Collection<String> isbns) {
+        return jdbcTemplate.query(FIND_IDS_BY_ISBN, Map.of("isbns", isbns),
+                        (rs, rowNum) -> Map.entry(rs.getString("isbn"), rs.getLong("id")))
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public void replaceCategories(Map<Long, Set<Long>> categoryIdsByBookId) {
+        if (categoryIdsByBookId.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(DELETE_CATEGORIES, Map.of("bookIds", categoryIdsByBookId.keySet()));
+        List<Object[]> links = new ArrayList<>();
+        categoryIdsByBookId.forEach((bookId, categoryIds) -> categoryIds
+                .forEach(categoryId -> links.add(new Object[]{bookId, categoryId})));
+        jdbcTemplate.getJdbcOperations().batchUpdate(INSERT_CATEGORY, links);
+    }
+}
@@ -1,16 +1,69 @@
 package book.store.repository.book;
 
+import book.store.dto.book.BookCategoryIdDto;
+import book.store.dto.book.BookDtoWithoutCategoryIds;
+import book.store.dto.book.BookExportRowDto;
+import book.store.dto.book.BookSuggestionSourceDto;
+import book.store.dto.book.BookVersionDto;
 import book.store.model.Book;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
 
-    @Query("SELECT b FROM Book b JOIN b.categories c WHERE c.id = :categoryId")
-    List<Book> findAllByCategoryId(Long categoryId);
+    @Query(value = "SELECT new book.store.dto.book.BookDtoWithoutCategoryIds(b.id, b.title, "
+            + "b.author, b.isbn, b.price, b.description, b.coverImage) "
+            + "FROM Book b JOIN b.categories c WHERE c.id = :categoryId",
+            countQuery = "SELECT COUNT(b) FROM Book b JOIN b.categories c "
+                    + "WHERE c.id = :categoryId")
+    Page<BookDtoWithoutCategoryIds> findAllByCategoryId(Long categoryId, Pageable pageable);
 
+    @Query("SELECT new book.store.dto.book.BookDtoWithoutCategoryIds(b.id, b.title, "
+            + "b.author, b.isbn, b.price, b.description, b.coverImage) "
+            + "FROM Book b JOIN b.categories c WHERE c.id = :categoryId AND b.id > :lastId "
+            + "ORDER BY b.id")
+    List<BookDtoWithoutCategoryIds> findAllByCategoryIdAfterId(Long categoryId, Long lastId,
+                                                               Limit limit);
+
+    @Query("SELECT new book.store.dto.book.BookCategoryIdDto(b.id, c.id) "
+            + "FROM Book b JOIN b.categories c WHERE b.id IN :bookIds")
+    List<BookCategoryIdDto> findCategoryIdsByBookIds(Collection<Long> bookIds);
+
+    @Query("SELECT new book.store.dto.book.BookSuggestionSourceDto(b.id, b.title, b.author) "
+            + "FROM Book b")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<BookSuggestionSourceDto> streamSuggestionSources();
+
+    @Query("SELECT new book.store.dto.book.BookExportRowDto(b.id, b.title, b.author, b.isbn, "
+            + "b.price, b.description, b.coverImage, c.id) "
+            + "FROM Book b LEFT JOIN b.categories c ORDER BY b.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    Stream<BookExportRowDto> streamExportRows();
+
+    Slice<Book> findAllBy(Pageable pageable);
+
+    @Query("SELECT b FROM Book b WHERE b.id > :lastId ORDER BY b.id")
+    List<Book> findAllAfterId(Long lastId, Limit limit);
+
+    @Query("SELECT new book.store.dto.book.BookVersionDto(b.version, b.updatedAt) "
+            + "FROM Book b WHERE b.id = :id")
+    Optional<BookVersionDto> findVersionById(Long id);
+
+    @Query(value = "SELECT MAX(updated_at) FROM books", nativeQuery = true)
+    LocalDateTime findLastModified();
 }
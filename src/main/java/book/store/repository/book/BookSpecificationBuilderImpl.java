@@ -33,6 +33,11 @@ public class BookSpecificationBuilderImpl implements SpecificationBuilder<Book>
                     .getSpecificationProvider("title")
                     .getSpecification(searchParameters.title()));
         }
+        if (searchParameters.text() != null && searchParameters.text().length > 0) {
+            specification = specification.and(bookSpecificationProviderManager
+                    .getSpecificationProvider("text")
+                    .getSpecification(searchParameters.text()));
+        }
         return specification;
     }
 }
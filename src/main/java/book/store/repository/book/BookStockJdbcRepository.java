@@ -0,0 +1,115 @@
+package book.store.repository.book;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+@RequiredArgsConstructor
+@Repository
+public class BookStockJdbcRepository {
+    private static final String RESERVE_STOCK =
+            "UPDATE books SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String LOCK_STOCK = "SELECT stock FROM books WHERE id = ? FOR UPDATE";
+    private static final String DECREASE_STOCK =
+            "UPDATE books SET stock = stock - ? WHERE id = ?";
+    private static final String INCREASE_STOCK =
+            "UPDATE books SET stock = stock + ? WHERE id = ?";
+    private static final String INSERT_ALLOCATION =
+            "INSERT INTO book_stock_allocations (book_id, quantity) VALUES (?, ?)";
+    private static final String FIND_UNUSED_ALLOCATIONS = "SELECT a.book_id, "
+            + "SUM(a.quantity) - COALESCE((SELECT SUM(oi.quantity) FROM order_items oi "
+            + "JOIN book_stock_allocations used ON used.id = oi.stock_allocation_id "
+            + "WHERE used.book_id = a.book_id), 0) AS unused "
+            + "FROM book_stock_allocations a GROUP BY a.book_id";
+    private static final String UNLINK_ORDER_ITEMS = "UPDATE order_items "
+            + "SET stock_allocation_id = NULL WHERE stock_allocation_id IS NOT NULL";
+    private static final String DELETE_ALLOCATIONS = "DELETE FROM book_stock_allocations";
+    private static final String FIND_STOCK =
+            "SELECT stock FROM books WHERE id = ? AND is_deleted = false";
+    private static final String SET_STOCK =
+            "UPDATE books SET stock = ? WHERE id = ? AND is_deleted = false";
+    private static final String ADD_STOCK = "UPDATE books SET stock = stock + ? "
+            + "WHERE id = ? AND is_deleted = false AND stock + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<Integer> findStock(Long bookId) {
+        return jdbcTemplate.queryForList(FIND_STOCK, Integer.class, bookId).stream()
+                .findFirst();
+    }
+
+    public boolean setStock(Long bookId, int stock) {
+        return jdbcTemplate.update(SET_STOCK, stock, bookId) > 0;
+    }
+
+    public boolean addStock(Long bookId, int delta) {
+        return jdbcTemplate.update(ADD_STOCK, delta, bookId, delta) > 0;
+    }
+
+    public List<Long> reserve(Map<Long, Integer> quantitiesByBookId) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantitiesByBookId);
+        List<Object[]> rows = new ArrayList<>(ordered.size());
+        ordered.forEach((bookId, quantity) -> rows.add(new Object[]{quantity, bookId, quantity}));
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_STOCK, rows);
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add((Long) rows.get(i)[1]);
+            }
+        }
+        return insufficient;
+    }
+
+    public int takeUpTo(Long bookId, int quantity) {
+        int available = jdbcTemplate.queryForList(LOCK_STOCK, Integer.class, bookId).stream()
+                .findFirst()
+                .orElse(0);
+        int taken = Math.min(available, quantity);
+        if (taken > 0) {
+            jdbcTemplate.update(DECREASE_STOCK, taken, bookId);
+        }
+        return taken;
+    }
+
+    public Long allocate(Long bookId, int quantity) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_ALLOCATION,
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, bookId);
+            ps.setInt(2, quantity);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Number.class).longValue();
+    }
+
+    public Map<Long, Integer> findUnusedAllocations() {
+        Map<Long, Integer> unused = new HashMap<>();
+        jdbcTemplate.query(FIND_UNUSED_ALLOCATIONS, rs -> {
+            unused.put(rs.getLong("book_id"), rs.getInt("unused"));
+        });
+        return unused;
+    }
+
+    public void deleteAllocations() {
+        jdbcTemplate.update(UNLINK_ORDER_ITEMS);
+        jdbcTemplate.update(DELETE_ALLOCATIONS);
+    }
+
+    public void release(Map<Long, Integer> quantitiesByBookId) {
+        Map<Long, Integer> ordered = new TreeMap<>(quantitiesByBookId);
+        List<Object[]> rows = new ArrayList<>(ordered.size());
+        ordered.forEach((bookId, quantity) -> rows.add(new Object[]{quantity, bookId}));
+        jdbcTemplate.batchUpdate(INCREASE_STOCK, rows);
+    }
+}
@@ -0,0 +1,77 @@
+package book.store.repository.book;
+
+import book.store.dto.book.BookSuggestionSourceDto;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+@Component
+public class BookSuggestionIndex {
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final BookRepository bookRepository;
+    private final ConcurrentSkipListMap<String, String> suggestions =
+            new ConcurrentSkipListMap<>();
+    private final Map<Long, List<String>> keysByBookId = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        clear();
+        try (Stream<BookSuggestionSourceDto> books = bookRepository.streamSuggestionSources()) {
+            books.forEach(book -> index(book.id(), book.title(), book.author()));
+        }
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        Set<String> result = new LinkedHashSet<>();
+        for (String suggestion : suggestions.subMap(
+                normalizedPrefix, normalizedPrefix + Character.MAX_VALUE).values()) {
+            result.add(suggestion);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return List.copyOf(result);
+    }
+
+    public synchronized void index(Long bookId, String title, String author) {
+        remove(bookId);
+        List<String> keys = List.of(key(title, bookId, 't'), key(author, bookId, 'a'));
+        suggestions.put(keys.get(0), title);
+        suggestions.put(keys.get(1), author);
+        keysByBookId.put(bookId, keys);
+    }
+
+    public synchronized void remove(Long bookId) {
+        List<String> keys = keysByBookId.remove(bookId);
+        if (keys != null) {
+            keys.forEach(suggestions::remove);
+        }
+    }
+
+    public synchronized void clear() {
+        suggestions.clear();
+        keysByBookId.clear();
+    }
+
+    private String key(String text, Long bookId, char field) {
+        return normalize(text) + KEY_SEPARATOR + field + bookId;
+    }
+
+    private String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
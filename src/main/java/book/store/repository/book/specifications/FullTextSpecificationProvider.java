@@ -0,0 +1,31 @@
+package book.store.repository.book.specifications;
+
+import book.store.config.FullTextFunctionContributor;
+import book.store.model.Book;
+import book.store.repository.specification.SpecificationProvider;
+import jakarta.persistence.criteria.Expression;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FullTextSpecificationProvider implements SpecificationProvider<Book> {
+
+    @Override
+    public String getKey() {
+        return "text";
+    }
+
+    @Override
+    public Specification<Book> getSpecification(String[] params) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<Double> relevance = criteriaBuilder.function(
+                    FullTextFunctionContributor.MATCH_AGAINST, Double.class,
+                    root.get("title"), root.get("author"), root.get("description"),
+                    criteriaBuilder.literal(String.join(" ", params)));
+            if (!Long.class.equals(query.getResultType()) && query.getOrderList().isEmpty()) {
+                query.orderBy(criteriaBuilder.desc(relevance));
+            }
+            return criteriaBuilder.greaterThan(relevance, 0.0);
+        };
+    }
+}
@@ -1,8 +1,11 @@
 package book.store.repository.cartitem;
 
 import book.store.model.CartItem;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,4 +14,9 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Optional<CartItem> findByShoppingCartIdAndBookId(Long cartId, Long bookId);
 
     Optional<CartItem> findByShoppingCartId(Long cartId);
+
+    List<CartItem> findAllByShoppingCartIdAndBookIdIn(Long cartId, Collection<Long> bookIds);
+
+    @Query("SELECT ci.shoppingCart.user.id FROM CartItem ci WHERE ci.id = :id")
+    Optional<Long> findUserIdById(Long id);
 }
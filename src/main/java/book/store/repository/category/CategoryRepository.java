@@ -1,9 +1,26 @@
 package book.store.repository.category;
 
 import book.store.model.Category;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<Category> findAll(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<Category> findAllBy(Pageable pageable);
+
+    @Query(value = "SELECT MAX(updated_at) FROM categories", nativeQuery = true)
+    LocalDateTime findLastModified();
 }
@@ -1,19 +1,48 @@
 package book.store.repository.order;
 
+import book.store.dto.order.OrderRowDto;
 import book.store.model.Order;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    Optional<Order> findByUserId(Long userId);
+    Optional<Order> findFirstByUserIdAndStatusOrderByIdDesc(Long userId, Order.Status status);
 
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.book"})
-    List<Order> findAllByUserId(Long userId);
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId")
+    Page<Long> findIdsByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId AND o.id < :lastId "
+            + "ORDER BY o.id DESC")
+    List<Long> findIdsByUserIdBeforeId(Long userId, Long lastId, Limit limit);
+
+    @Query("SELECT new book.store.dto.order.OrderRowDto(o.id, o.user.id, o.orderDate, o.total, "
+            + "o.status, oi.id, oi.book.id, oi.quantity) "
+            + "FROM Order o LEFT JOIN o.orderItems oi WHERE o.id IN :ids ORDER BY oi.id")
+    List<OrderRowDto> findRowsByIdIn(Collection<Long> ids);
 
     Optional<Order> findByIdAndUserId(Long id, Long userId);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id > :lastId "
+            + "AND (:status IS NULL OR o.status = :status) "
+            + "AND (:from IS NULL OR o.orderDate >= :from) "
+            + "AND (:to IS NULL OR o.orderDate < :to) ORDER BY o.id")
+    List<Long> findIdsByFilterAfterId(Order.Status status, LocalDateTime from,
+                                      LocalDateTime to, Long lastId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id IN :ids "
+            + "AND o.status IN :previousStatuses AND o.isDeleted = false")
+    int updateStatusByIdIn(Collection<Long> ids, Order.Status status,
+                           Collection<Order.Status> previousStatuses);
 }
@@ -0,0 +1,59 @@
+package book.store.repository.shoppingcart;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+@RequiredArgsConstructor
+@Repository
+public class ShoppingCartJdbcRepository {
+    private static final String UPSERT_CART = "INSERT INTO shopping_carts (user_id) VALUES (?) "
+            + "ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)";
+    private static final String ADD_CART_ITEM_QUANTITY = "INSERT INTO cart_items "
+            + "(shopping_cart_id, book_id, quantity) VALUES (?, ?, ?) AS new "
+            + "ON DUPLICATE KEY UPDATE quantity = cart_items.quantity + new.quantity";
+    private static final String UPDATE_CART_ITEM_QUANTITY =
+            "UPDATE cart_items SET quantity = ? WHERE id = ?";
+    private static final String DELETE_CART_ITEM = "DELETE FROM cart_items WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Long findOrCreateCartId(Long userId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_CART,
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setLong(1, userId);
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    public void addQuantities(Long cartId, Map<Long, Integer> quantitiesByBookId) {
+        List<Object[]> rows = new ArrayList<>(quantitiesByBookId.size());
+        quantitiesByBookId.forEach((bookId, quantity) ->
+                rows.add(new Object[]{cartId, bookId, quantity}));
+        jdbcTemplate.batchUpdate(ADD_CART_ITEM_QUANTITY, rows);
+    }
+
+    public void updateQuantities(Map<Long, Integer> quantitiesByItemId) {
+        List<Object[]> rows = new ArrayList<>(quantitiesByItemId.size());
+        quantitiesByItemId.forEach((itemId, quantity) ->
+                rows.add(new Object[]{quantity, itemId}));
+        jdbcTemplate.batchUpdate(UPDATE_CART_ITEM_QUANTITY, rows);
+    }
+
+    public void deleteItems(Collection<Long> itemIds) {
+        jdbcTemplate.batchUpdate(DELETE_CART_ITEM, itemIds.stream()
+                .map(itemId -> new Object[]{itemId})
+                .toList());
+    }
+}
@@ -1,8 +1,12 @@
 package book.store.repository.shoppingcart;
 
+import book.store.dto.shoppingcart.ShoppingCartRowDto;
 import book.store.model.ShoppingCart;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -10,5 +14,14 @@ public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long
 
     Optional<ShoppingCart> findByUserId(Long userId);
 
+    @Query("SELECT new book.store.dto.shoppingcart.ShoppingCartRowDto("
+            + "sc.id, sc.user.id, ci.id, b.id, b.title, ci.quantity) "
+            + "FROM ShoppingCart sc LEFT JOIN sc.cartItems ci LEFT JOIN ci.book b "
+            + "WHERE sc.user.id = :userId ORDER BY ci.id")
+    List<ShoppingCartRowDto> findRowsByUserId(Long userId);
+
+    @EntityGraph(attributePaths = {"cartItems", "cartItems.book"})
+    Optional<ShoppingCart> findWithItemsByUserId(Long userId);
+
     void delete(ShoppingCart shoppingCart);
 }
@@ -0,0 +1,84 @@
+package book.store.security;
+
+import book.store.model.Role;
+import book.store.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CaffeineUserCache implements UserCache {
+    private static final String CACHE_NAME = "userPrincipals";
+
+    private final Cache<String, PrincipalSnapshot> cache;
+
+    public CaffeineUserCache(@Value("${security.user-cache.ttl:5m}") Duration timeToLive,
+                             @Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+                             MeterRegistry meterRegistry) {
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        PrincipalSnapshot snapshot = cache.getIfPresent(username);
+        return snapshot == null ? null : snapshot.toUser();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (user instanceof User entity) {
+            cache.put(entity.getUsername(), PrincipalSnapshot.of(entity));
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(username);
+    }
+
+    private record PrincipalSnapshot(Long id, String email, String password, String firstName,
+                                     String lastName, String shippingAddress,
+                                     Map<Long, Role.RoleName> roles) {
+
+        static PrincipalSnapshot of(User user) {
+            return new PrincipalSnapshot(user.getId(), user.getEmail(), user.getPassword(),
+                    user.getFirstName(), user.getLastName(), user.getShippingAddress(),
+                    user.getRoles().stream()
+                            .collect(Collectors.toUnmodifiableMap(Role::getId,
+                                    Role::getRoleName)));
+        }
+
+        User toUser() {
+            Set<Role> userRoles = new HashSet<>();
+            roles.forEach((roleId, roleName) -> {
+                Role role = new Role();
+                role.setId(roleId);
+                role.setRoleName(roleName);
+                userRoles.add(role);
+            });
+            return new User()
+                    .setId(id)
+                    .setEmail(email)
+                    .setPassword(password)
+                    .setFirstName(firstName)
+                    .setLastName(lastName)
+                    .setShippingAddress(shippingAddress)
+                    .setRoles(userRoles);
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package book.store.security;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
@@ -17,11 +17,15 @@ import org.springframework.stereotype.Component;
 public class JwtUtil {
     private long expiration;
     private Key secret;
+    private JwtParser parser;
 
     public JwtUtil(
             @Value("${jwt.expiration}") long expiration, @Value("${jwt.secret}") String key) {
         this.expiration = expiration;
         secret = Keys.hmacShaKeyFor(key.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .setSigningKey(secret)
+                .build();
     }
 
     public String generateToken(String username) {
@@ -33,13 +37,16 @@ public class JwtUtil {
                 .compact();
     }
 
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public boolean isValidToken(String token) {
-        Jws<Claims> claimsJwe = Jwts.parser()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token);
+        return isValid(parseClaims(token));
+    }
 
-        return !claimsJwe.getBody().getExpiration().before(new Date());
+    public boolean isValid(Claims claims) {
+        return !claims.getExpiration().before(new Date());
     }
 
     public String getUsername(String token) {
@@ -47,11 +54,6 @@ public class JwtUtil {
     }
 
     private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parser()
-                .setSigningKey(secret)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseClaims(token));
     }
 }
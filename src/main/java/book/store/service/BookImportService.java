@@ -0,0 +1,11 @@
+package book.store.service;
+
+import book.store.dto.book.BookDataFormat;
+import book.store.dto.book.BookImportResultDto;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BookImportService {
+    BookImportResultDto importBooks(BookDataFormat format, InputStream inputStream)
+            throws IOException;
+}
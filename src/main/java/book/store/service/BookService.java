@@ -1,10 +1,17 @@
 package book.store.service;
 
+import book.store.dto.book.BookDataFormat;
 import book.store.dto.book.BookDto;
 import book.store.dto.book.BookSearchParametersDto;
 import book.store.dto.book.CreateBookRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.version.ResourceVersionDto;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface BookService {
     BookDto save(CreateBookRequestDto bookDto);
@@ -13,11 +20,28 @@ public interface BookService {
 
     Page<BookDto> findAll(Pageable pageable);
 
-    BookDto updateBook(Long id, CreateBookRequestDto bookDto);
+    Page<BookDto> findAllWithApproximateCount(Pageable pageable);
+
+    CursorPageDto<BookDto> findAllByCursor(String cursor, int size);
+
+    BookDto updateBook(Long id, CreateBookRequestDto bookDto, String ifMatch);
 
     void deleteById(Long id);
 
     void deleteAll();
 
     Page<BookDto> search(BookSearchParametersDto parameters, Pageable pageable);
+
+    Slice<BookDto> searchWithoutCount(BookSearchParametersDto parameters, Pageable pageable);
+
+    List<String> suggest(String prefix, int limit);
+
+    CursorPageDto<BookDto> searchByCursor(BookSearchParametersDto parameters,
+                                          String cursor, int size);
+
+    ResourceVersionDto getVersion(Long id);
+
+    ResourceVersionDto getCatalogVersion();
+
+    void exportBooks(BookDataFormat format, OutputStream outputStream) throws IOException;
 }
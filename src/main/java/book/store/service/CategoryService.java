@@ -3,7 +3,8 @@ package book.store.service;
 import book.store.dto.book.BookDtoWithoutCategoryIds;
 import book.store.dto.category.CategoryDto;
 import book.store.dto.category.CreateCategoryRequestDto;
-import java.util.List;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.version.ResourceVersionDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -11,6 +12,8 @@ public interface CategoryService {
 
     Page<CategoryDto> findAll(Pageable pageable);
 
+    Page<CategoryDto> findAllWithApproximateCount(Pageable pageable);
+
     CategoryDto getById(Long id);
 
     CategoryDto save(CreateCategoryRequestDto categoryDto);
@@ -19,6 +22,13 @@ public interface CategoryService {
 
     void deleteById(Long id);
 
-    List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id);
+    Page<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id, Pageable pageable);
+
+    CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryIdAndCursor(Long id, String cursor,
+                                                                            int size);
+
+    ResourceVersionDto getVersion();
+
+    ResourceVersionDto getBooksVersion();
 
 }
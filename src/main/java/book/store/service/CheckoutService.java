@@ -0,0 +1,13 @@
+package book.store.service;
+
+import book.store.dto.order.CheckoutStatusDto;
+import book.store.dto.order.CreateOrderRequestDto;
+import book.store.model.User;
+
+public interface CheckoutService {
+
+    CheckoutStatusDto submit(String idempotencyKey, CreateOrderRequestDto createOrderRequestDto,
+                             User user);
+
+    CheckoutStatusDto getStatus(String idempotencyKey, User user);
+}
@@ -1,21 +1,30 @@
 package book.store.service;
 
+import book.store.dto.order.BulkUpdateOrderStatusRequestDto;
+import book.store.dto.order.BulkUpdateOrderStatusResultDto;
 import book.store.dto.order.CreateOrderRequestDto;
 import book.store.dto.order.OrderDto;
 import book.store.dto.order.UpdateOrderRequestDto;
 import book.store.dto.orderitem.OrderItemDto;
+import book.store.dto.page.CursorPageDto;
 import book.store.model.User;
 import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface OrderService {
 
     OrderDto placeOrder(CreateOrderRequestDto createOrderRequestDto, User user);
 
-    List<OrderDto> getAllOrders(User user);
+    Page<OrderDto> getAllOrders(User user, Pageable pageable);
+
+    CursorPageDto<OrderDto> getAllOrdersByCursor(User user, String cursor, int size);
 
     List<OrderItemDto> getAllOrderItemsFromOrder(Long id, User user);
 
     OrderItemDto getOrderItemFromOrder(Long orderId, Long itemId, User user);
 
     void updateOrderStatus(Long id, UpdateOrderRequestDto updateOrderDto);
+
+    BulkUpdateOrderStatusResultDto updateOrderStatuses(BulkUpdateOrderStatusRequestDto requestDto);
 }
@@ -1,10 +1,12 @@
 package book.store.service;
 
 import book.store.dto.cartitem.CartItemDto;
+import book.store.dto.shoppingcart.CreateCartItemsRequestDto;
 import book.store.dto.shoppingcart.CreateShoppingCartRequestDto;
 import book.store.dto.shoppingcart.ShoppingCartDto;
 import book.store.dto.shoppingcart.UpdateCartItemRequestDto;
 import book.store.model.User;
+import java.util.List;
 
 public interface ShoppingCartService {
 
@@ -12,7 +14,13 @@ public interface ShoppingCartService {
 
     CartItemDto addItemToCart(User user, CreateShoppingCartRequestDto shoppingCartRequestDto);
 
+    List<CartItemDto> addItemsToCart(User user, CreateCartItemsRequestDto requestDto);
+
     CartItemDto updateItemQuantityById(Long id, UpdateCartItemRequestDto itemRequestDto);
 
     void deleteBookByIdFromCart(Long id);
+
+    void flushCart(Long userId);
+
+    void discardCartAfterCommit(Long userId);
 }
@@ -0,0 +1,14 @@
+package book.store.service;
+
+import book.store.dto.book.BookStockDto;
+import book.store.dto.book.UpdateBookStockRequestDto;
+import java.util.Map;
+
+public interface StockService {
+
+    BookStockDto getStock(Long bookId);
+
+    BookStockDto updateStock(Long bookId, UpdateBookStockRequestDto requestDto);
+
+    Map<Long, Long> reserve(Map<Long, Integer> quantitiesByBookId);
+}
@@ -0,0 +1,373 @@
+package book.store.service.impl;
+
+import static book.store.config.CacheConfig.BOOKS;
+import static book.store.config.CacheConfig.CATEGORY_BOOKS;
+
+import book.store.dto.book.BookDataFormat;
+import book.store.dto.book.BookImportErrorDto;
+import book.store.dto.book.BookImportResultDto;
+import book.store.dto.book.BookImportRowDto;
+import book.store.exception.InvalidImportFileException;
+import book.store.model.Book;
+import book.store.model.Category;
+import book.store.repository.RowCountCache;
+import book.store.repository.book.BookJdbcRepository;
+import book.store.repository.book.BookRepository;
+import book.store.repository.book.BookSuggestionIndex;
+import book.store.repository.category.CategoryRepository;
+import book.store.service.BookImportService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class BookImportServiceImpl implements BookImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final String BOOK_CATEGORIES_ROLE = Book.class.getName() + ".categories";
+    private static final List<String> REQUIRED_CSV_COLUMNS =
+            List.of("title", "author", "isbn", "price");
+
+    private final BookJdbcRepository bookJdbcRepository;
+    private final BookRepository bookRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final RowCountCache rowCountCache;
+    private final int batchSize;
+
+    public BookImportServiceImpl(BookJdbcRepository bookJdbcRepository,
+                                 BookRepository bookRepository,
+                                 CategoryRepository categoryRepository,
+                                 BookSuggestionIndex bookSuggestionIndex,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 TransactionTemplate transactionTemplate,
+                                 CacheManager cacheManager,
+                                 EntityManagerFactory entityManagerFactory,
+                                 RowCountCache rowCountCache,
+                                 @Value("${book.import.batch-size:1000}") int batchSize) {
+        this.bookJdbcRepository = bookJdbcRepository;
+        this.bookRepository = bookRepository;
+        this.categoryRepository = categoryRepository;
+        this.bookSuggestionIndex = bookSuggestionIndex;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.rowCountCache = rowCountCache;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public BookImportResultDto importBooks(BookDataFormat format, InputStream inputStream)
+            throws IOException {
+        final long startedAt = System.nanoTime();
+        Reader reader = new BufferedReader(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        RowReader rowReader = format == BookDataFormat.CSV
+                ? csvRowReader(new LineNumberReader(reader))
+                : ndjsonRowReader(new BufferedReader(reader));
+        ImportProgress progress = new ImportProgress();
+        Map<Long, Boolean> knownCategories = new HashMap<>();
+        List<ParsedRow> chunk = new ArrayList<>(batchSize);
+
+        try {
+            ParsedRow row;
+            while ((row = rowReader.next()) != null) {
+                progress.processed++;
+                String error = row.error() != null ? row.error() : validate(row.book());
+                if (error != null) {
+                    progress.fail(row.line(), error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    writeChunk(chunk, knownCategories, progress);
+                    chunk.clear();
+                }
+            }
+            writeChunk(chunk, knownCategories, progress);
+        } finally {
+            if (progress.imported > 0) {
+                evictCaches();
+            }
+        }
+        long durationMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        return new BookImportResultDto(progress.processed, progress.imported, progress.failed,
+                progress.errors, durationMillis, progress.processed * 1000 / durationMillis);
+    }
+
+    private void writeChunk(List<ParsedRow> chunk, Map<Long, Boolean> knownCategories,
+                            ImportProgress progress) {
+        List<ParsedRow> valid = rejectUnknownCategories(chunk, knownCategories, progress);
+        if (valid.isEmpty()) {
+            return;
+        }
+        Map<String, ParsedRow> rows = new LinkedHashMap<>();
+        for (ParsedRow row : valid) {
+            ParsedRow superseded = rows.remove(row.book().getIsbn());
+            if (superseded != null) {
+                progress.fail(superseded.line(), "isbn: superseded by line " + row.line());
+            }
+            rows.put(row.book().getIsbn(), row);
+        }
+        try {
+            write(rows);
+            progress.imported += rows.size();
+        } catch (DataAccessException e) {
+            rows.forEach((isbn, row) -> {
+                try {
+                    write(Map.of(isbn, row));
+                    progress.imported++;
+                } catch (DataAccessException rowException) {
+                    progress.fail(row.line(), "Row was rejected by the database: "
+                            + rowException.getMostSpecificCause().getMessage());
+                }
+            });
+        }
+    }
+
+    private void write(Map<String, ParsedRow> rows) {
+        Map<String, Long> ids = transactionTemplate.execute(status -> {
+            bookJdbcRepository.upsert(rows.values().stream().map(ParsedRow::book).toList());
+            Map<String, Long> idsByIsbn = bookJdbcRepository.findIdsByIsbn(rows.keySet());
+            Map<Long, Set<Long>> categoryIdsByBookId = new HashMap<>();
+            rows.forEach((isbn, row) -> {
+                if (row.book().getCategoryIds() != null) {
+                    categoryIdsByBookId.put(idsByIsbn.get(isbn), row.book().getCategoryIds());
+                }
+            });
+            bookJdbcRepository.replaceCategories(categoryIdsByBookId);
+            return idsByIsbn;
+        });
+        rows.forEach((isbn, row) -> bookSuggestionIndex.index(ids.get(isbn),
+                row.book().getTitle(), row.book().getAuthor()));
+    }
+
+    private List<ParsedRow> rejectUnknownCategories(List<ParsedRow> chunk,
+                                                    Map<Long, Boolean> knownCategories,
+                                                    ImportProgress progress) {
+        Set<Long> unresolved = chunk.stream()
+                .map(row -> row.book().getCategoryIds())
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream)
+                .filter(id -> !knownCategories.containsKey(id))
+                .collect(Collectors.toSet());
+        if (!unresolved.isEmpty()) {
+            Set<Long> existing = categoryRepository.findAllById(unresolved).stream()
+                    .map(Category::getId)
+                    .collect(Collectors.toSet());
+            unresolved.forEach(id -> knownCategories.put(id, existing.contains(id)));
+        }
+        List<ParsedRow> valid = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            Set<Long> categoryIds = row.book().getCategoryIds();
+            List<Long> unknown = categoryIds == null ? List.of() : categoryIds.stream()
+                    .filter(id -> !knownCategories.get(id))
+                    .sorted()
+                    .toList();
+            if (unknown.isEmpty()) {
+                valid.add(row);
+            } else {
+                progress.fail(row.line(), "categoryIds: unknown categories " + unknown);
+            }
+        }
+        return valid;
+    }
+
+    private String validate(BookImportRowDto book) {
+        Set<ConstraintViolation<BookImportRowDto>> violations = validator.validate(book);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void evictCaches() {
+        cacheManager.getCache(BOOKS).clear();
+        cacheManager.getCache(CATEGORY_BOOKS).clear();
+        Cache secondLevelCache = entityManagerFactory.getCache().unwrap(Cache.class);
+        secondLevelCache.evictEntityData(Book.class);
+        secondLevelCache.evictCollectionData(BOOK_CATEGORIES_ROLE);
+        rowCountCache.evict(bookRepository);
+    }
+
+    private RowReader ndjsonRowReader(BufferedReader reader) {
+        ObjectReader jsonReader = objectMapper.readerFor(BookImportRowDto.class);
+        long[] line = {0};
+        return () -> {
+            String json;
+            do {
+                json = reader.readLine();
+                line[0]++;
+            } while (json != null && json.isBlank());
+            if (json == null) {
+                return null;
+            }
+            try {
+                return new ParsedRow(line[0], jsonReader.readValue(json), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line[0], null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private RowReader csvRowReader(LineNumberReader reader) throws IOException {
+        CsvRecord header = readCsvRecord(reader);
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.values().size(); i++) {
+            columns.put(header.values().get(i).trim(), i);
+        }
+        List<String> missing = REQUIRED_CSV_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidImportFileException("CSV header is missing columns " + missing);
+        }
+        return () -> {
+            CsvRecord record = readCsvRecord(reader);
+            if (record == null) {
+                return null;
+            }
+            try {
+                return new ParsedRow(record.line(), toImportRow(columns, record.values()), null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(record.line(), null, "Malformed number: " + e.getMessage());
+            }
+        };
+    }
+
+    private BookImportRowDto toImportRow(Map<String, Integer> columns, List<String> values) {
+        BookImportRowDto row = new BookImportRowDto();
+        row.setTitle(csvValue(columns, values, "title"))
+                .setAuthor(csvValue(columns, values, "author"))
+                .setIsbn(csvValue(columns, values, "isbn"))
+                .setDescription(csvValue(columns, values, "description"))
+                .setCoverImage(csvValue(columns, values, "coverImage"));
+        String price = csvValue(columns, values, "price");
+        row.setPrice(price == null ? null : new BigDecimal(price));
+        String stock = csvValue(columns, values, "stock");
+        row.setStock(stock == null ? null : Integer.valueOf(stock));
+        String categoryIds = csvValue(columns, values, "categoryIds");
+        if (categoryIds != null) {
+            row.setCategoryIds(Arrays.stream(categoryIds.split(";"))
+                    .map(String::trim)
+                    .map(Long::valueOf)
+                    .collect(Collectors.toCollection(HashSet::new)));
+        }
+        return row;
+    }
+
+    private String csvValue(Map<String, Integer> columns, List<String> values, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private CsvRecord readCsvRecord(LineNumberReader reader) throws IOException {
+        int next = reader.read();
+        while (next == '\r' || next == '\n') {
+            next = reader.read();
+        }
+        if (next == -1) {
+            return null;
+        }
+        long line = reader.getLineNumber() + 1;
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (next != -1) {
+            char c = (char) next;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        value.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                value.append(c);
+            }
+            next = reader.read();
+        }
+        values.add(value.toString());
+        return new CsvRecord(line, values);
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        ParsedRow next() throws IOException;
+    }
+
+    private record ParsedRow(long line, BookImportRowDto book, String error) {
+    }
+
+    private record CsvRecord(long line, List<String> values) {
+    }
+
+    private static class ImportProgress {
+        private final List<BookImportErrorDto> errors = new ArrayList<>();
+        private long processed;
+        private long imported;
+        private long failed;
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BookImportErrorDto(line, message));
+            }
+        }
+    }
+}
@@ -1,83 +1,357 @@
 package book.store.service.impl;
 
+import static book.store.config.CacheConfig.BOOKS;
+import static book.store.config.CacheConfig.CATEGORY_BOOKS;
+
+import book.store.dto.book.BookCategoryIdDto;
+import book.store.dto.book.BookDataFormat;
 import book.store.dto.book.BookDto;
+import book.store.dto.book.BookExportRowDto;
 import book.store.dto.book.BookSearchParametersDto;
+import book.store.dto.book.BookVersionDto;
 import book.store.dto.book.CreateBookRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.page.KeysetCursor;
+import book.store.dto.page.KeysetPager;
+import book.store.dto.version.ResourceVersionDto;
 import book.store.exception.EntityNotFoundException;
+import book.store.exception.PreconditionFailedException;
 import book.store.mapper.BookMapper;
 import book.store.model.Book;
+import book.store.repository.RowCountCache;
 import book.store.repository.book.BookRepository;
 import book.store.repository.book.BookSpecificationBuilderImpl;
+import book.store.repository.book.BookSuggestionIndex;
+import book.store.repository.category.CategoryRepository;
 import book.store.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @RequiredArgsConstructor
 @Service
 public class BookServiceImpl implements BookService {
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final String ANY_ETAG = "*";
+    private static final String CSV_HEADER =
+            "id,title,author,isbn,price,description,coverImage,categoryIds";
 
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final BookSpecificationBuilderImpl bookSpecificationBuilder;
+    private final BookSuggestionIndex bookSuggestionIndex;
+    private final CategoryRepository categoryRepository;
+    private final RowCountCache rowCountCache;
+    private final ObjectMapper objectMapper;
 
     @Override
+    @CacheEvict(cacheNames = CATEGORY_BOOKS, allEntries = true)
+    @Transactional
     public BookDto save(CreateBookRequestDto bookDto) {
         Book book = bookMapper.toEntity(bookDto);
         Book savedBook = bookRepository.save(book);
+        afterCommit(() -> bookSuggestionIndex.index(savedBook.getId(), savedBook.getTitle(),
+                savedBook.getAuthor()));
         return bookMapper.toDto(savedBook);
     }
 
     @Override
+    @Cacheable(cacheNames = BOOKS, key = "#id")
     @Transactional(readOnly = true)
     public BookDto findById(Long id) {
         Book book = bookRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Book with id " + id + " not found"));
-        return bookMapper.toDto(book);
+        return toDto(book, findCategoryIds(List.of(book)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookDto> findAll(Pageable pageable) {
-        List<BookDto> bookDtoList = bookRepository.findAll(pageable).stream()
-                .map(bookMapper::toDto)
-                .collect(Collectors.toList());
-        return new PageImpl<>(bookDtoList, pageable, bookDtoList.size());
+        Page<Book> books = bookRepository.findAll(pageable);
+        Map<Long, Set<Long>> categoryIds = findCategoryIds(books.getContent());
+        return books.map(book -> toDto(book, categoryIds));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<BookDto> findAllWithApproximateCount(Pageable pageable) {
+        Slice<Book> books = bookRepository.findAllBy(pageable);
+        Map<Long, Set<Long>> categoryIds = findCategoryIds(books.getContent());
+        return rowCountCache.toPage(books.map(book -> toDto(book, categoryIds)), bookRepository);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> findAllByCursor(String cursor, int size) {
+        List<Book> books = bookRepository.findAllAfterId(KeysetPager.lastId(cursor, 0),
+                KeysetPager.limit(size));
+        CursorPageDto<Book> page = KeysetPager.page(books, size, Book::getId);
+        Map<Long, Set<Long>> categoryIds = findCategoryIds(page.content());
+        return page.withContent(page.content().stream()
+                .map(book -> toDto(book, categoryIds))
+                .toList());
     }
 
     @Override
-    public BookDto updateBook(Long id, CreateBookRequestDto bookDto) {
+    @Caching(evict = {
+            @CacheEvict(cacheNames = BOOKS, key = "#id"),
+            @CacheEvict(cacheNames = CATEGORY_BOOKS, allEntries = true)
+    })
+    @Transactional
+    public BookDto updateBook(Long id, CreateBookRequestDto bookDto, String ifMatch) {
         Book bookSaved = bookRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Book with id " + id + " not found"));
+        if (ifMatch != null && !matchesIfMatch(ifMatch, ResourceVersionDto.of(
+                versionPrefix(bookSaved.getVersion()), bookSaved.getUpdatedAt(),
+                categoryRepository.findLastModified()).etag())) {
+            throw new PreconditionFailedException("Book with id " + id
+                    + " was modified, If-Match doesn't match its current ETag");
+        }
         Book bookUpdated = bookMapper.toEntity(bookDto);
         bookUpdated.setId(bookSaved.getId());
-        return bookMapper.toDto(bookRepository.save(bookUpdated));
+        bookUpdated.setVersion(bookSaved.getVersion());
+        Book savedBook = bookRepository.save(bookUpdated);
+        afterCommit(() -> bookSuggestionIndex.index(savedBook.getId(), savedBook.getTitle(),
+                savedBook.getAuthor()));
+        return bookMapper.toDto(savedBook);
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = BOOKS, key = "#id"),
+            @CacheEvict(cacheNames = CATEGORY_BOOKS, allEntries = true)
+    })
+    @Transactional
     public void deleteById(Long id) {
         bookRepository.deleteById(id);
+        afterCommit(() -> bookSuggestionIndex.remove(id));
     }
 
     @Override
+    @CacheEvict(cacheNames = {BOOKS, CATEGORY_BOOKS}, allEntries = true)
+    @Transactional
     public void deleteAll() {
         bookRepository.deleteAll();
+        afterCommit(bookSuggestionIndex::clear);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<BookDto> search(BookSearchParametersDto parameters, Pageable pageable) {
         Specification<Book> bookSpecification = bookSpecificationBuilder.build(parameters);
-        List<BookDto> bookDtoList = bookRepository.findAll(bookSpecification)
-                .stream()
-                .map(bookMapper::toDto)
+        Page<Book> books = bookRepository.findAll(bookSpecification, pageable);
+        Map<Long, Set<Long>> categoryIds = findCategoryIds(books.getContent());
+        return books.map(book -> toDto(book, categoryIds));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<BookDto> searchWithoutCount(BookSearchParametersDto parameters,
+                                             Pageable pageable) {
+        Specification<Book> bookSpecification = bookSpecificationBuilder.build(parameters);
+        Slice<Book> books = bookRepository.findBy(bookSpecification,
+                query -> query.slice(pageable));
+        Map<Long, Set<Long>> categoryIds = findCategoryIds(books.getContent());
+        return books.map(book -> toDto(book, categoryIds));
+    }
+
+    @Override
+    public List<String> suggest(String prefix, int limit) {
+        return bookSuggestionIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDto> searchByCursor(BookSearchParametersDto parameters,
+                                                 String cursor, int size) {
+        Specification<Book> bookSpecification = bookSpecificationBuilder.build(parameters);
+        ScrollPosition position = cursor == null
+                ? ScrollPosition.keyset()
+                : ScrollPosition.forward(Map.of("id", KeysetCursor.decode(cursor).lastId()));
+        Window<Book> books = bookRepository.findBy(bookSpecification,
+                query -> query.sortBy(Sort.by("id")).limit(size).scroll(position));
+        String nextCursor = books.hasNext()
+                ? new KeysetCursor(books.getContent().getLast().getId()).encode()
+                : null;
+        Map<Long, Set<Long>> categoryIds = findCategoryIds(books.getContent());
+        return new CursorPageDto<>(books.map(book -> toDto(book, categoryIds)).getContent(),
+                nextCursor, books.hasNext());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersionDto getVersion(Long id) {
+        BookVersionDto bookVersion = bookRepository.findVersionById(id).orElseThrow(
+                () -> new EntityNotFoundException("Book with id " + id + " not found"));
+        return ResourceVersionDto.of(versionPrefix(bookVersion.version()),
+                bookVersion.updatedAt(), categoryRepository.findLastModified());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersionDto getCatalogVersion() {
+        return ResourceVersionDto.of(bookRepository.findLastModified(),
+                categoryRepository.findLastModified());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(BookDataFormat format, OutputStream outputStream)
+            throws IOException {
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+        BookExportWriter bookWriter = format == BookDataFormat.CSV
+                ? csvWriter(writer)
+                : ndjsonWriter(writer);
+        try (Stream<BookExportRowDto> rows = bookRepository.streamExportRows()) {
+            Iterator<BookExportRowDto> iterator = rows.iterator();
+            BookDto current = null;
+            while (iterator.hasNext()) {
+                BookExportRowDto row = iterator.next();
+                if (current == null || !current.getId().equals(row.id())) {
+                    if (current != null) {
+                        bookWriter.write(current);
+                    }
+                    current = toDto(row);
+                }
+                if (row.categoryId() != null) {
+                    current.getCategoryId().add(row.categoryId());
+                }
+            }
+            if (current != null) {
+                bookWriter.write(current);
+            }
+        }
+        writer.flush();
+    }
+
+    private boolean matchesIfMatch(String ifMatch, String currentEtag) {
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .anyMatch(etag -> etag.equals(ANY_ETAG) || etag.equals(currentEtag));
+    }
+
+    private String versionPrefix(Long version) {
+        return version + "-";
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+    }
+
+    private Map<Long, Set<Long>> findCategoryIds(List<Book> books) {
+        if (books.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> bookIds = books.stream()
+                .map(Book::getId)
                 .toList();
-        return new PageImpl<>(bookDtoList, pageable, bookDtoList.size());
+        return bookRepository.findCategoryIdsByBookIds(bookIds).stream()
+                .collect(Collectors.groupingBy(BookCategoryIdDto::bookId,
+                        Collectors.mapping(BookCategoryIdDto::categoryId, Collectors.toSet())));
+    }
+
+    private BookDto toDto(Book book, Map<Long, Set<Long>> categoryIds) {
+        return bookMapper.toDto(book, categoryIds.getOrDefault(book.getId(), Set.of()));
+    }
+
+    private BookDto toDto(BookExportRowDto row) {
+        return new BookDto()
+                .setId(row.id())
+                .setTitle(row.title())
+                .setAuthor(row.author())
+                .setIsbn(row.isbn())
+                .setPrice(row.price())
+                .setDescription(row.description())
+                .setCoverImage(row.coverImage())
+                .setCategoryId(new HashSet<>());
+    }
+
+    private BookExportWriter ndjsonWriter(Writer writer) {
+        ObjectWriter jsonWriter = objectMapper.writerFor(BookDto.class);
+        return book -> {
+            writer.write(jsonWriter.writeValueAsString(book));
+            writer.write('\n');
+        };
+    }
+
+    private BookExportWriter csvWriter(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        return book -> {
+            writer.write(String.valueOf(book.getId()));
+            writer.write(',');
+            writer.write(toCsvField(book.getTitle()));
+            writer.write(',');
+            writer.write(toCsvField(book.getAuthor()));
+            writer.write(',');
+            writer.write(toCsvField(book.getIsbn()));
+            writer.write(',');
+            writer.write(book.getPrice() == null ? "" : book.getPrice().toPlainString());
+            writer.write(',');
+            writer.write(toCsvField(book.getDescription()));
+            writer.write(',');
+            writer.write(toCsvField(book.getCoverImage()));
+            writer.write(',');
+            writer.write(book.getCategoryId().stream()
+                    .sorted()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(";")));
+            writer.write('\n');
+        };
+    }
+
+    private String toCsvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface BookExportWriter {
+        void write(BookDto book) throws IOException;
     }
 }
@@ -1,19 +1,32 @@
 package book.store.service.impl;
 
+import static book.store.config.CacheConfig.BOOKS;
+import static book.store.config.CacheConfig.CATEGORIES;
+import static book.store.config.CacheConfig.CATEGORY_BOOKS;
+import static book.store.config.CacheConfig.CATEGORY_PAGES;
+
 import book.store.dto.book.BookDtoWithoutCategoryIds;
 import book.store.dto.category.CategoryDto;
 import book.store.dto.category.CreateCategoryRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.page.KeysetPager;
+import book.store.dto.version.ResourceVersionDto;
 import book.store.exception.EntityNotFoundException;
-import book.store.mapper.BookMapper;
 import book.store.mapper.CategoryMapper;
+import book.store.model.Book;
 import book.store.model.Category;
+import book.store.repository.RowCountCache;
 import book.store.repository.book.BookRepository;
 import book.store.repository.category.CategoryRepository;
 import book.store.service.CategoryService;
+import jakarta.persistence.EntityManagerFactory;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,22 +34,31 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 @Service
 public class CategoryServiceImpl implements CategoryService {
+    private static final String BOOK_CATEGORIES_ROLE = Book.class.getName() + ".categories";
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private final BookRepository bookRepository;
-    private final BookMapper bookMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final RowCountCache rowCountCache;
 
     @Override
+    @Cacheable(cacheNames = CATEGORY_PAGES, key = "#pageable")
     @Transactional(readOnly = true)
     public Page<CategoryDto> findAll(Pageable pageable) {
-        List<CategoryDto> categoryDtoList = categoryRepository.findAll(pageable).stream()
-                .map(categoryMapper::toDto)
-                .toList();
-        return new PageImpl<>(categoryDtoList, pageable, categoryDtoList.size());
+        return categoryRepository.findAll(pageable).map(categoryMapper::toDto);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CATEGORY_PAGES, key = "{'approximate', #pageable}")
+    @Transactional(readOnly = true)
+    public Page<CategoryDto> findAllWithApproximateCount(Pageable pageable) {
+        return rowCountCache.toPage(categoryRepository.findAllBy(pageable)
+                .map(categoryMapper::toDto), categoryRepository);
     }
 
     @Override
+    @Cacheable(cacheNames = CATEGORIES, key = "#id")
     @Transactional(readOnly = true)
     public CategoryDto getById(Long id) {
         Category category = categoryRepository.findById(id).orElseThrow(
@@ -45,6 +67,7 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @CacheEvict(cacheNames = CATEGORY_PAGES, allEntries = true)
     @Transactional
     public CategoryDto save(CreateCategoryRequestDto categoryDto) {
         Category category = categoryMapper.toEntity(categoryDto);
@@ -53,26 +76,60 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = CATEGORY_PAGES, allEntries = true)
+    })
     @Transactional
     public CategoryDto update(Long id, CreateCategoryRequestDto categoryDto) {
         Category savedCategory = categoryRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Category with id " + id + " not found"));
         Category updatedCategory = categoryMapper.toEntity(categoryDto);
         updatedCategory.setId(savedCategory.getId());
+        updatedCategory.setVersion(savedCategory.getVersion());
         return categoryMapper.toDto(categoryRepository.save(updatedCategory));
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CATEGORIES, key = "#id"),
+            @CacheEvict(cacheNames = CATEGORY_PAGES, allEntries = true),
+            @CacheEvict(cacheNames = CATEGORY_BOOKS, allEntries = true),
+            @CacheEvict(cacheNames = BOOKS, allEntries = true)
+    })
     @Transactional
     public void deleteById(Long id) {
         categoryRepository.deleteById(id);
+        entityManagerFactory.getCache().unwrap(Cache.class)
+                .evictCollectionData(BOOK_CATEGORIES_ROLE);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CATEGORY_BOOKS, key = "{#id, #pageable}")
+    @Transactional(readOnly = true)
+    public Page<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id, Pageable pageable) {
+        return bookRepository.findAllByCategoryId(id, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookDtoWithoutCategoryIds> getBooksByCategoryIdAndCursor(
+            Long id, String cursor, int size) {
+        List<BookDtoWithoutCategoryIds> books = bookRepository.findAllByCategoryIdAfterId(id,
+                KeysetPager.lastId(cursor, 0), KeysetPager.limit(size));
+        return KeysetPager.page(books, size, BookDtoWithoutCategoryIds::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersionDto getVersion() {
+        return ResourceVersionDto.of(categoryRepository.findLastModified());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<BookDtoWithoutCategoryIds> getBooksByCategoryId(Long id) {
-        return bookRepository.findAllByCategoryId(id).stream()
-                .map(bookMapper::toDtoWithoutCategories)
-                .toList();
+    public ResourceVersionDto getBooksVersion() {
+        return ResourceVersionDto.of(bookRepository.findLastModified(),
+                categoryRepository.findLastModified());
     }
 }
@@ -0,0 +1,139 @@
+package book.store.service.impl;
+
+import book.store.dto.order.CheckoutStatusDto;
+import book.store.dto.order.CreateOrderRequestDto;
+import book.store.exception.CheckoutQueueFullException;
+import book.store.exception.EntityNotFoundException;
+import book.store.exception.QuantityTooLowException;
+import book.store.model.User;
+import book.store.service.CheckoutService;
+import book.store.service.OrderService;
+import book.store.service.ShoppingCartService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class CheckoutServiceImpl implements CheckoutService {
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final String ORDER_FAILED_MESSAGE = "Order could not be placed";
+
+    private final OrderService orderService;
+    private final ShoppingCartService shoppingCartService;
+    private final BlockingQueue<CheckoutTask> queue;
+    private final Cache<String, CheckoutStatusDto> statuses;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private volatile boolean running = true;
+
+    public CheckoutServiceImpl(
+            OrderService orderService,
+            ShoppingCartService shoppingCartService,
+            @Value("${order.checkout.queue-capacity:1000}") int queueCapacity,
+            @Value("${order.checkout.workers:4}") int workerCount,
+            @Value("${order.checkout.idempotency-ttl:24h}") Duration idempotencyTtl,
+            @Value("${order.checkout.status-cache-size:100000}") long statusCacheSize) {
+        this.orderService = orderService;
+        this.shoppingCartService = shoppingCartService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(idempotencyTtl)
+                .maximumSize(statusCacheSize)
+                .build();
+        this.workers = Executors.newFixedThreadPool(workerCount,
+                Thread.ofPlatform().name("checkout-worker-", 0).factory());
+        this.workerCount = workerCount;
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drainQueue);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        workers.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public CheckoutStatusDto submit(String idempotencyKey,
+                                    CreateOrderRequestDto createOrderRequestDto, User user) {
+        String statusKey = statusKey(idempotencyKey, user);
+        CheckoutStatusDto queued = CheckoutStatusDto.queued(idempotencyKey);
+        CheckoutStatusDto existing = statuses.asMap().putIfAbsent(statusKey, queued);
+        if (existing != null) {
+            return existing;
+        }
+        if (!running || !queue.offer(new CheckoutTask(statusKey, createOrderRequestDto, user))) {
+            statuses.invalidate(statusKey);
+            throw new CheckoutQueueFullException("Checkout queue is full, please retry later");
+        }
+        return queued;
+    }
+
+    @Override
+    public CheckoutStatusDto getStatus(String idempotencyKey, User user) {
+        CheckoutStatusDto status = statuses.getIfPresent(statusKey(idempotencyKey, user));
+        if (status == null) {
+            throw new EntityNotFoundException("Checkout with key " + idempotencyKey
+                    + " wasn't found");
+        }
+        return status;
+    }
+
+    private void drainQueue() {
+        while (running || !queue.isEmpty()) {
+            try {
+                CheckoutTask task = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (task != null) {
+                    placeOrder(task);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void placeOrder(CheckoutTask task) {
+        try {
+            shoppingCartService.flushCart(task.user().getId());
+            Long orderId = orderService.placeOrder(task.createOrderRequestDto(), task.user())
+                    .getId();
+            statuses.asMap().computeIfPresent(task.statusKey(),
+                    (key, status) -> status.completed(orderId));
+        } catch (RuntimeException e) {
+            log.warn("Checkout {} failed", task.statusKey(), e);
+            String error = e instanceof EntityNotFoundException
+                    || e instanceof QuantityTooLowException
+                    ? e.getMessage()
+                    : ORDER_FAILED_MESSAGE;
+            statuses.asMap().computeIfPresent(task.statusKey(),
+                    (key, status) -> status.failed(error));
+        }
+    }
+
+    private String statusKey(String idempotencyKey, User user) {
+        return user.getId() + ":" + idempotencyKey;
+    }
+
+    private record CheckoutTask(String statusKey, CreateOrderRequestDto createOrderRequestDto,
+                                User user) {
+    }
+}
@@ -0,0 +1,446 @@
+package book.store.service.impl;
+
+import book.store.dto.cartitem.CartItemDto;
+import book.store.dto.cartitem.CartItemDtoWithTitle;
+import book.store.dto.shoppingcart.CreateCartItemsRequestDto;
+import book.store.dto.shoppingcart.CreateShoppingCartRequestDto;
+import book.store.dto.shoppingcart.ShoppingCartDto;
+import book.store.dto.shoppingcart.UpdateCartItemRequestDto;
+import book.store.exception.EntityNotFoundException;
+import book.store.model.Book;
+import book.store.model.CartItem;
+import book.store.model.User;
+import book.store.repository.book.BookRepository;
+import book.store.repository.cartitem.CartItemRepository;
+import book.store.repository.shoppingcart.ShoppingCartJdbcRepository;
+import book.store.repository.shoppingcart.ShoppingCartRepository;
+import book.store.service.ShoppingCartService;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "memory")
+public class InMemoryShoppingCartServiceImpl implements ShoppingCartService {
+    private final Map<Long, HotCart> carts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userIdsByItemId = new ConcurrentHashMap<>();
+
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    private final BookRepository bookRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleTimeoutNanos;
+
+    public InMemoryShoppingCartServiceImpl(
+            ShoppingCartRepository shoppingCartRepository,
+            ShoppingCartJdbcRepository shoppingCartJdbcRepository,
+            BookRepository bookRepository,
+            CartItemRepository cartItemRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${cart.storage.idle-timeout:30m}") Duration idleTimeout) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.shoppingCartJdbcRepository = shoppingCartJdbcRepository;
+        this.bookRepository = bookRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+    }
+
+    @Override
+    public ShoppingCartDto getShoppingCart(Long userId) {
+        return withCart(userId, false, cart -> {
+            if (cart.id == null) {
+                throw new EntityNotFoundException("User with id " + userId
+                        + " doesn't have shopping cart");
+            }
+            return new ShoppingCartDto()
+                    .setId(cart.id)
+                    .setUserId(userId)
+                    .setCartItems(cart.items.values().stream()
+                            .map(this::toDtoWithTitle)
+                            .collect(Collectors.toSet()));
+        });
+    }
+
+    @Override
+    public CartItemDto addItemToCart(
+            User user, CreateShoppingCartRequestDto shoppingCartRequestDto) {
+        Long bookId = shoppingCartRequestDto.getBookId();
+        return addQuantities(user.getId(), Map.of(bookId, shoppingCartRequestDto.getQuantity()),
+                missingIds -> "Item with id " + bookId + " not found").get(0);
+    }
+
+    @Override
+    public List<CartItemDto> addItemsToCart(User user, CreateCartItemsRequestDto requestDto) {
+        Map<Long, Integer> quantities = requestDto.getItems().stream()
+                .collect(Collectors.toMap(CreateShoppingCartRequestDto::getBookId,
+                        CreateShoppingCartRequestDto::getQuantity, Integer::sum,
+                        LinkedHashMap::new));
+        return addQuantities(user.getId(), quantities,
+                missingIds -> "Items with ids " + missingIds + " not found");
+    }
+
+    @Override
+    public CartItemDto updateItemQuantityById(Long id, UpdateCartItemRequestDto itemRequestDto) {
+        return withCart(findUserIdByItemId(id), true, cart -> {
+            HotCartItem item = findItem(cart, id);
+            item.quantity = itemRequestDto.getQuantity();
+            cart.updatedItemIds.add(id);
+            return toDto(item);
+        });
+    }
+
+    @Override
+    public void deleteBookByIdFromCart(Long id) {
+        withCart(findUserIdByItemId(id), true, cart -> {
+            HotCartItem item = findItem(cart, id);
+            cart.items.remove(item.bookId);
+            cart.updatedItemIds.remove(id);
+            cart.deletedItems.put(item.bookId, item);
+            userIdsByItemId.remove(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void flushCart(Long userId) {
+        HotCart cart = carts.get(userId);
+        if (cart != null) {
+            synchronized (cart) {
+                awaitFlush(cart);
+                if (!cart.retired) {
+                    PendingWrites writes = cart.drain();
+                    try {
+                        write(writes);
+                    } catch (RuntimeException e) {
+                        cart.restore(writes);
+                        throw e;
+                    }
+                    retire(userId, cart);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void discardCartAfterCommit(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            discard(userId);
+                        }
+                    });
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${cart.storage.flush-interval:1s}")
+    public void flushDirtyCarts() {
+        Map<HotCart, PendingWrites> drained = new IdentityHashMap<>();
+        carts.values().forEach(cart -> {
+            synchronized (cart) {
+                if (!cart.retired && !cart.flushing && cart.isDirty()) {
+                    cart.flushing = true;
+                    drained.put(cart, cart.drain());
+                }
+            }
+        });
+        if (!drained.isEmpty()) {
+            boolean written = false;
+            try {
+                write(PendingWrites.merge(drained.values()));
+                written = true;
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} shopping carts, retrying on next run",
+                        drained.size(), e);
+            } finally {
+                for (Map.Entry<HotCart, PendingWrites> entry : drained.entrySet()) {
+                    HotCart cart = entry.getKey();
+                    synchronized (cart) {
+                        if (!written) {
+                            cart.restore(entry.getValue());
+                        }
+                        cart.flushing = false;
+                        cart.notifyAll();
+                    }
+                }
+            }
+        }
+        evictIdleCarts();
+    }
+
+    private List<CartItemDto> addQuantities(Long userId, Map<Long, Integer> quantities,
+                                            Function<List<Long>, String> notFoundMessage) {
+        return withCart(userId, true, cart -> {
+            Map<Long, Integer> newBooks = new LinkedHashMap<>();
+            quantities.forEach((bookId, quantity) -> {
+                if (!cart.items.containsKey(bookId) && !cart.deletedItems.containsKey(bookId)) {
+                    newBooks.put(bookId, quantity);
+                }
+            });
+            if (!newBooks.isEmpty()) {
+                insertItems(userId, cart, newBooks, notFoundMessage);
+            }
+            quantities.keySet().forEach(bookId -> {
+                HotCartItem deleted = cart.deletedItems.remove(bookId);
+                if (deleted != null) {
+                    deleted.quantity = 0;
+                    cart.items.put(bookId, deleted);
+                    userIdsByItemId.put(deleted.id, userId);
+                }
+            });
+            return quantities.entrySet().stream()
+                    .map(entry -> {
+                        HotCartItem item = cart.items.get(entry.getKey());
+                        if (!newBooks.containsKey(entry.getKey())) {
+                            item.quantity += entry.getValue();
+                            cart.updatedItemIds.add(item.id);
+                        }
+                        return toDto(item);
+                    })
+                    .toList();
+        });
+    }
+
+    private void insertItems(Long userId, HotCart cart, Map<Long, Integer> quantities,
+                             Function<List<Long>, String> notFoundMessage) {
+        Map<Long, String> titles = bookRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Book::getTitle));
+        List<Long> missingIds = quantities.keySet().stream()
+                .filter(bookId -> !titles.containsKey(bookId))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new EntityNotFoundException(notFoundMessage.apply(missingIds));
+        }
+
+        if (cart.id == null) {
+            cart.id = transactionTemplate.execute(
+                    status -> shoppingCartJdbcRepository.findOrCreateCartId(userId));
+        }
+        List<CartItem> cartItems = transactionTemplate.execute(status -> {
+            shoppingCartJdbcRepository.addQuantities(cart.id, quantities);
+            return cartItemRepository.findAllByShoppingCartIdAndBookIdIn(
+                    cart.id, quantities.keySet());
+        });
+        cartItems.forEach(cartItem -> {
+            Long bookId = cartItem.getBook().getId();
+            cart.items.put(bookId, new HotCartItem(cartItem.getId(), bookId,
+                    titles.get(bookId), cartItem.getQuantity()));
+            userIdsByItemId.put(cartItem.getId(), userId);
+        });
+    }
+
+    private <T> T withCart(Long userId, boolean write, Function<HotCart, T> action) {
+        while (true) {
+            HotCart cart = carts.computeIfAbsent(userId, this::loadCart);
+            synchronized (cart) {
+                if (write) {
+                    awaitFlush(cart);
+                }
+                if (!cart.retired) {
+                    cart.lastAccessNanos = System.nanoTime();
+                    return action.apply(cart);
+                }
+            }
+        }
+    }
+
+    private HotCart loadCart(Long userId) {
+        HotCart cart = new HotCart();
+        shoppingCartRepository.findWithItemsByUserId(userId).ifPresent(shoppingCart -> {
+            cart.id = shoppingCart.getId();
+            shoppingCart.getCartItems().forEach(cartItem -> {
+                Book book = cartItem.getBook();
+                cart.items.put(book.getId(), new HotCartItem(cartItem.getId(), book.getId(),
+                        book.getTitle(), cartItem.getQuantity()));
+                userIdsByItemId.put(cartItem.getId(), userId);
+            });
+        });
+        return cart;
+    }
+
+    private Long findUserIdByItemId(Long id) {
+        Long userId = userIdsByItemId.get(id);
+        if (userId != null) {
+            return userId;
+        }
+        return cartItemRepository.findUserIdById(id).orElseThrow(
+                () -> new EntityNotFoundException("Item with id " + id + " not found"));
+    }
+
+    private HotCartItem findItem(HotCart cart, Long id) {
+        return cart.items.values().stream()
+                .filter(item -> item.id.equals(id))
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("Item with id " + id
+                        + " not found"));
+    }
+
+    private void awaitFlush(HotCart cart) {
+        try {
+            while (cart.flushing && !cart.retired) {
+                cart.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cart flush", e);
+        }
+    }
+
+    private void write(PendingWrites writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!writes.quantitiesByItemId().isEmpty()) {
+                shoppingCartJdbcRepository.updateQuantities(writes.quantitiesByItemId());
+            }
+            if (!writes.deletedItemIds().isEmpty()) {
+                shoppingCartJdbcRepository.deleteItems(writes.deletedItemIds());
+            }
+        });
+    }
+
+    private void evictIdleCarts() {
+        long now = System.nanoTime();
+        carts.forEach((userId, cart) -> {
+            synchronized (cart) {
+                if (!cart.flushing && !cart.isDirty()
+                        && now - cart.lastAccessNanos > idleTimeoutNanos) {
+                    retire(userId, cart);
+                }
+            }
+        });
+    }
+
+    private void discard(Long userId) {
+        HotCart cart = carts.get(userId);
+        if (cart != null) {
+            synchronized (cart) {
+                retire(userId, cart);
+            }
+        }
+    }
+
+    private void retire(Long userId, HotCart cart) {
+        cart.retired = true;
+        cart.notifyAll();
+        carts.remove(userId, cart);
+        cart.items.values().forEach(item -> userIdsByItemId.remove(item.id, userId));
+    }
+
+    private CartItemDto toDto(HotCartItem item) {
+        return new CartItemDto()
+                .setId(item.id)
+                .setBookId(item.bookId)
+                .setQuantity(item.quantity);
+    }
+
+    private CartItemDtoWithTitle toDtoWithTitle(HotCartItem item) {
+        CartItemDtoWithTitle dto = new CartItemDtoWithTitle();
+        dto.setId(item.id);
+        dto.setBookId(item.bookId);
+        dto.setBookTitle(item.bookTitle);
+        dto.setQuantity(item.quantity);
+        return dto;
+    }
+
+    private static class HotCart {
+        private final Map<Long, HotCartItem> items = new LinkedHashMap<>();
+        private final Set<Long> updatedItemIds = new HashSet<>();
+        private final Map<Long, HotCartItem> deletedItems = new HashMap<>();
+        private Long id;
+        private long lastAccessNanos = System.nanoTime();
+        private boolean flushing;
+        private boolean retired;
+
+        private boolean isDirty() {
+            return !updatedItemIds.isEmpty() || !deletedItems.isEmpty();
+        }
+
+        private PendingWrites drain() {
+            Map<Long, Integer> quantities = new HashMap<>();
+            items.values().stream()
+                    .filter(item -> updatedItemIds.contains(item.id))
+                    .forEach(item -> quantities.put(item.id, item.quantity));
+            Set<Long> deletedItemIds = deletedItems.values().stream()
+                    .map(item -> item.id)
+                    .collect(Collectors.toSet());
+            PendingWrites writes = new PendingWrites(quantities, deletedItemIds,
+                    Map.copyOf(deletedItems));
+            updatedItemIds.clear();
+            deletedItems.clear();
+            return writes;
+        }
+
+        private void restore(PendingWrites writes) {
+            writes.quantitiesByItemId().keySet().stream()
+                    .filter(itemId -> items.values().stream()
+                            .anyMatch(item -> item.id.equals(itemId)))
+                    .forEach(updatedItemIds::add);
+            writes.deletedItems().forEach((bookId, item) -> {
+                if (!items.containsKey(bookId)) {
+                    deletedItems.putIfAbsent(bookId, item);
+                }
+            });
+        }
+    }
+
+    private static class HotCartItem {
+        private final Long id;
+        private final Long bookId;
+        private final String bookTitle;
+        private int quantity;
+
+        private HotCartItem(Long id, Long bookId, String bookTitle, int quantity) {
+            this.id = id;
+            this.bookId = bookId;
+            this.bookTitle = bookTitle;
+            this.quantity = quantity;
+        }
+    }
+
+    private record PendingWrites(Map<Long, Integer> quantitiesByItemId,
+                                 Set<Long> deletedItemIds,
+                                 Map<Long, HotCartItem> deletedItems) {
+
+        private static PendingWrites merge(Iterable<PendingWrites> writes) {
+            Map<Long, Integer> quantities = new HashMap<>();
+            Set<Long> deletedItemIds = new HashSet<>();
+            writes.forEach(pending -> {
+                quantities.putAll(pending.quantitiesByItemId());
+                deletedItemIds.addAll(pending.deletedItemIds());
+            });
+            return new PendingWrites(quantities, deletedItemIds, Map.of());
+        }
+
+        private boolean isEmpty() {
+            return quantitiesByItemId.isEmpty() && deletedItemIds.isEmpty();
+        }
+    }
+}
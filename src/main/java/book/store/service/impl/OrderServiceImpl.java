@@ -1,10 +1,16 @@
 package book.store.service.impl;
 
+import book.store.dto.order.BulkUpdateOrderStatusRequestDto;
+import book.store.dto.order.BulkUpdateOrderStatusResultDto;
 import book.store.dto.order.CreateOrderRequestDto;
 import book.store.dto.order.OrderDto;
+import book.store.dto.order.OrderRowDto;
 import book.store.dto.order.UpdateOrderRequestDto;
 import book.store.dto.orderitem.OrderItemDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.page.KeysetPager;
 import book.store.exception.EntityNotFoundException;
+import book.store.exception.OrderStatusTransitionException;
 import book.store.mapper.OrderItemMapper;
 import book.store.mapper.OrderMapper;
 import book.store.model.CartItem;
@@ -17,20 +23,31 @@ import book.store.repository.order.OrderRepository;
 import book.store.repository.orderitem.OrderItemRepository;
 import book.store.repository.shoppingcart.ShoppingCartRepository;
 import book.store.service.OrderService;
+import book.store.service.ShoppingCartService;
+import book.store.service.StockService;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RequiredArgsConstructor
 @Service
 public class OrderServiceImpl implements OrderService {
+    private static final int STATUS_UPDATE_CHUNK_SIZE = 1000;
 
     private final ShoppingCartRepository shoppingCartRepository;
     private final CartItemRepository cartItemRepository;
@@ -38,43 +55,52 @@ public class OrderServiceImpl implements OrderService {
     private final OrderItemRepository orderItemRepository;
     private final OrderMapper orderMapper;
     private final OrderItemMapper orderItemMapper;
+    private final ShoppingCartService shoppingCartService;
+    private final StockService stockService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional
     public OrderDto placeOrder(CreateOrderRequestDto createOrderRequestDto, User user) {
-
-        ShoppingCart shoppingCart = shoppingCartRepository.findByUserId(user.getId()).orElseThrow(
-                () -> new EntityNotFoundException("User with id " + user.getId()
-                        + " doesn't have shopping cart")
-        );
-        Optional<Order> orderOptional = orderRepository.findByUserId(user.getId());
-        Order order = new Order();
-
-        if (orderOptional.isEmpty() || orderOptional.get().getStatus() != Order.Status.PENDING) {
-            order.setUser(user);
-            order.setStatus(Order.Status.PENDING);
-            order.setTotal(BigDecimal.ZERO);
-            order.setOrderDate(LocalDateTime.now());
-            order.setShippingAddress(createOrderRequestDto.getShippingAddress());
-            orderRepository.save(order);
-        } else {
-            order = orderOptional.get();
-        }
-
-        Set<OrderItem> orderItems = order.getOrderItems();
+        shoppingCartService.discardCartAfterCommit(user.getId());
+
+        ShoppingCart shoppingCart = shoppingCartRepository.findWithItemsByUserId(user.getId())
+                .orElseThrow(() -> new EntityNotFoundException("User with id " + user.getId()
+                        + " doesn't have shopping cart"));
+        Map<Long, Long> allocationIds = stockService.reserve(shoppingCart.getCartItems().stream()
+                .collect(Collectors.toMap(cartItem -> cartItem.getBook().getId(),
+                        CartItem::getQuantity, Integer::sum)));
+
+        Order order = orderRepository.findFirstByUserIdAndStatusOrderByIdDesc(
+                user.getId(), Order.Status.PENDING).orElseGet(() -> {
+                    Order pendingOrder = new Order();
+                    pendingOrder.setUser(user);
+                    pendingOrder.setStatus(Order.Status.PENDING);
+                    pendingOrder.setTotal(BigDecimal.ZERO);
+                    pendingOrder.setOrderDate(LocalDateTime.now());
+                    pendingOrder.setShippingAddress(createOrderRequestDto.getShippingAddress());
+                    orderRepository.save(pendingOrder);
+                    return pendingOrder;
+                });
+
+        List<OrderItem> orderItems = new ArrayList<>(shoppingCart.getCartItems().size());
+        BigDecimal total = order.getTotal();
 
         for (CartItem cartItem : shoppingCart.getCartItems()) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setBook(cartItem.getBook());
             orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(orderItem.getBook().getPrice());
-            orderItems.add(orderItemRepository.save(orderItem));
-            BigDecimal orderItemTotalPrice = orderItem.getPrice()
-                    .multiply(BigDecimal.valueOf(orderItem.getQuantity()));
-            order.setTotal(order.getTotal().add(orderItemTotalPrice));
+            orderItem.setPrice(cartItem.getBook().getPrice());
+            orderItem.setStockAllocationId(allocationIds.get(cartItem.getBook().getId()));
+            orderItems.add(orderItem);
+            total = total.add(orderItem.getPrice()
+                    .multiply(BigDecimal.valueOf(orderItem.getQuantity())));
         }
 
+        order.setTotal(total);
+        order.getOrderItems().addAll(orderItemRepository.saveAll(orderItems));
+
         shoppingCartRepository.delete(shoppingCart);
 
         return orderMapper.toDto(order);
@@ -82,10 +108,18 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderDto> getAllOrders(User user) {
-        return orderRepository.findAllByUserId(user.getId()).stream()
-                .map(orderMapper::toDto)
-                .toList();
+    public Page<OrderDto> getAllOrders(User user, Pageable pageable) {
+        Page<Long> ids = orderRepository.findIdsByUserId(user.getId(), pageable);
+        return new PageImpl<>(findOrders(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<OrderDto> getAllOrdersByCursor(User user, String cursor, int size) {
+        List<Long> ids = orderRepository.findIdsByUserIdBeforeId(user.getId(),
+                KeysetPager.lastId(cursor, Long.MAX_VALUE), KeysetPager.limit(size));
+        CursorPageDto<Long> page = KeysetPager.page(ids, size, Function.identity());
+        return page.withContent(findOrders(page.content()));
     }
 
     @Override
@@ -93,10 +127,46 @@ public class OrderServiceImpl implements OrderService {
     public void updateOrderStatus(Long id, UpdateOrderRequestDto updateOrderDto) {
         Order order = orderRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Order with id " + id + " wasn't found"));
-        order.setStatus(updateOrderDto.getStatus());
+        Order.Status status = updateOrderDto.getStatus();
+        if (!status.getPreviousStatuses().contains(order.getStatus())) {
+            throw new OrderStatusTransitionException("Order with id " + id
+                    + " can't move from " + order.getStatus() + " to " + status);
+        }
+        order.setStatus(status);
         orderRepository.save(order);
     }
 
+    @Override
+    public BulkUpdateOrderStatusResultDto updateOrderStatuses(
+            BulkUpdateOrderStatusRequestDto requestDto) {
+        Order.Status status = requestDto.getStatus();
+        List<Order.Status> previousStatuses = List.copyOf(status.getPreviousStatuses());
+        long updated = 0;
+        if (requestDto.getIds() != null && !requestDto.getIds().isEmpty()) {
+            List<Long> ids = requestDto.getIds().stream().distinct().toList();
+            for (int from = 0; from < ids.size(); from += STATUS_UPDATE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from,
+                        Math.min(from + STATUS_UPDATE_CHUNK_SIZE, ids.size()));
+                updated += updateStatus(chunk, status, previousStatuses);
+            }
+            return new BulkUpdateOrderStatusResultDto(ids.size(), updated);
+        }
+        long matched = 0;
+        long lastId = 0;
+        List<Long> chunk;
+        do {
+            chunk = orderRepository.findIdsByFilterAfterId(requestDto.getCurrentStatus(),
+                    requestDto.getFrom(), requestDto.getTo(), lastId,
+                    Limit.of(STATUS_UPDATE_CHUNK_SIZE));
+            if (!chunk.isEmpty()) {
+                matched += chunk.size();
+                updated += updateStatus(chunk, status, previousStatuses);
+                lastId = chunk.getLast();
+            }
+        } while (chunk.size() == STATUS_UPDATE_CHUNK_SIZE);
+        return new BulkUpdateOrderStatusResultDto(matched, updated);
+    }
+
     @Override
     @Transactional
     public List<OrderItemDto> getAllOrderItemsFromOrder(Long orderId, User user) {
@@ -122,6 +192,55 @@ public class OrderServiceImpl implements OrderService {
                 + " was not found in order with id " + orderId);
     }
 
+    private int updateStatus(List<Long> ids, Order.Status status,
+                             List<Order.Status> previousStatuses) {
+        if (previousStatuses.isEmpty()) {
+            return 0;
+        }
+        return transactionTemplate.execute(transaction ->
+                orderRepository.updateStatusByIdIn(ids, status, previousStatuses));
+    }
+
+    private List<OrderDto> findOrders(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, OrderDto> orders = new LinkedHashMap<>();
+        ids.forEach(id -> orders.put(id, null));
+        for (OrderRowDto row : orderRepository.findRowsByIdIn(ids)) {
+            OrderDto order = orders.get(row.orderId());
+            if (order == null) {
+                order = toOrderDto(row);
+                orders.put(row.orderId(), order);
+            }
+            if (row.itemId() != null) {
+                order.getOrderItems().add(toOrderItemDto(row));
+            }
+        }
+        return orders.values().stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private OrderDto toOrderDto(OrderRowDto row) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setId(row.orderId());
+        orderDto.setUserId(row.userId());
+        orderDto.setOrderDate(row.orderDate());
+        orderDto.setTotal(row.total());
+        orderDto.setStatus(row.status());
+        orderDto.setOrderItems(new LinkedHashSet<>());
+        return orderDto;
+    }
+
+    private OrderItemDto toOrderItemDto(OrderRowDto row) {
+        OrderItemDto orderItemDto = new OrderItemDto();
+        orderItemDto.setId(row.itemId());
+        orderItemDto.setBookId(row.bookId());
+        orderItemDto.setQuantity(row.quantity());
+        return orderItemDto;
+    }
+
     private Order findUserOrder(Long orderId, User user) {
         return orderRepository.findByIdAndUserId(orderId, user.getId()).orElseThrow(
                 () -> new EntityNotFoundException("User with id " + user.getId()
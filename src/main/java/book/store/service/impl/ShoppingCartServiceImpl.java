@@ -1,82 +1,107 @@
 package book.store.service.impl;
 
 import book.store.dto.cartitem.CartItemDto;
+import book.store.dto.cartitem.CartItemDtoWithTitle;
+import book.store.dto.shoppingcart.CreateCartItemsRequestDto;
 import book.store.dto.shoppingcart.CreateShoppingCartRequestDto;
 import book.store.dto.shoppingcart.ShoppingCartDto;
+import book.store.dto.shoppingcart.ShoppingCartRowDto;
 import book.store.dto.shoppingcart.UpdateCartItemRequestDto;
 import book.store.exception.EntityNotFoundException;
 import book.store.mapper.CartItemMapper;
-import book.store.mapper.ShoppingCartMapper;
 import book.store.model.Book;
 import book.store.model.CartItem;
-import book.store.model.ShoppingCart;
 import book.store.model.User;
 import book.store.repository.book.BookRepository;
 import book.store.repository.cartitem.CartItemRepository;
+import book.store.repository.shoppingcart.ShoppingCartJdbcRepository;
 import book.store.repository.shoppingcart.ShoppingCartRepository;
 import book.store.repository.user.UserRepository;
 import book.store.service.ShoppingCartService;
-import java.util.Optional;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor
 @Service
+@ConditionalOnProperty(name = "cart.storage.mode", havingValue = "database",
+        matchIfMissing = true)
 public class ShoppingCartServiceImpl implements ShoppingCartService {
 
     private final ShoppingCartRepository shoppingCartRepository;
+    private final ShoppingCartJdbcRepository shoppingCartJdbcRepository;
     private final BookRepository bookRepository;
     private final CartItemRepository cartItemRepository;
-    private final ShoppingCartMapper shoppingCartMapper;
     private final CartItemMapper cartItemMapper;
     private final UserRepository userRepository;
 
     @Override
     @Transactional(readOnly = true)
     public ShoppingCartDto getShoppingCart(Long userId) {
-        ShoppingCart shoppingCart = shoppingCartRepository.findByUserId(userId).orElseThrow(
-                () -> new EntityNotFoundException("User with id " + userId
-                        + " doesn't have shopping cart")
-        );
-        return shoppingCartMapper.toDto(shoppingCart);
+        List<ShoppingCartRowDto> rows = shoppingCartRepository.findRowsByUserId(userId);
+        if (rows.isEmpty()) {
+            throw new EntityNotFoundException("User with id " + userId
+                    + " doesn't have shopping cart");
+        }
+        Set<CartItemDtoWithTitle> cartItems = rows.stream()
+                .filter(row -> row.itemId() != null)
+                .map(this::toCartItemDto)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return new ShoppingCartDto()
+                .setId(rows.get(0).cartId())
+                .setUserId(rows.get(0).userId())
+                .setCartItems(cartItems);
     }
 
     @Override
     @Transactional
     public CartItemDto addItemToCart(
             User user, CreateShoppingCartRequestDto shoppingCartRequestDto) {
+        Long bookId = shoppingCartRequestDto.getBookId();
+        if (!bookRepository.existsById(bookId)) {
+            throw new EntityNotFoundException("Item with id " + bookId + " not found");
+        }
 
-        Book book = bookRepository.findById(shoppingCartRequestDto.getBookId()).orElseThrow(
-                () -> new EntityNotFoundException("Item with id "
-                        + shoppingCartRequestDto.getBookId() + " not found"));
-
-        Optional<ShoppingCart> optionalShoppingCart =
-                shoppingCartRepository.findByUserId(user.getId());
-        ShoppingCart shoppingCart = optionalShoppingCart.orElseGet(
-                () -> {
-                    ShoppingCart cart = new ShoppingCart();
-                    cart.setUser(user);
-                    return shoppingCartRepository.save(cart);
-                });
+        Long shoppingCartId = shoppingCartJdbcRepository.findOrCreateCartId(user.getId());
+        shoppingCartJdbcRepository.addQuantities(shoppingCartId,
+                Map.of(bookId, shoppingCartRequestDto.getQuantity()));
+        CartItem cartItem = cartItemRepository.findByShoppingCartIdAndBookId(shoppingCartId, bookId)
+                .orElseThrow();
+        return cartItemMapper.toDto(cartItem);
+    }
 
-        Optional<CartItem> optionalCartItem =
-                cartItemRepository.findByShoppingCartIdAndBookId(
-                        shoppingCart.getId(), book.getId());
+    @Override
+    @Transactional
+    public List<CartItemDto> addItemsToCart(User user, CreateCartItemsRequestDto requestDto) {
+        Map<Long, Integer> quantities = requestDto.getItems().stream()
+                .collect(Collectors.toMap(CreateShoppingCartRequestDto::getBookId,
+                        CreateShoppingCartRequestDto::getQuantity, Integer::sum,
+                        LinkedHashMap::new));
 
-        CartItem cartItem = optionalCartItem.orElseGet(
-                () -> {
-                    CartItem item = new CartItem();
-                    item.setBook(book);
-                    item.setShoppingCart(shoppingCart);
-                    item.setQuantity(0);
-                    return item;
-                });
+        Set<Long> foundIds = bookRepository.findAllById(quantities.keySet()).stream()
+                .map(Book::getId)
+                .collect(Collectors.toSet());
+        List<Long> missingIds = quantities.keySet().stream()
+                .filter(bookId -> !foundIds.contains(bookId))
+                .toList();
+        if (!missingIds.isEmpty()) {
+            throw new EntityNotFoundException("Items with ids " + missingIds + " not found");
+        }
 
-        cartItem.setQuantity(cartItem.getQuantity()
-                + shoppingCartRequestDto.getQuantity());
-        cartItemRepository.save(cartItem);
-        return cartItemMapper.toDto(cartItem);
+        Long shoppingCartId = shoppingCartJdbcRepository.findOrCreateCartId(user.getId());
+        shoppingCartJdbcRepository.addQuantities(shoppingCartId, quantities);
+        return cartItemRepository
+                .findAllByShoppingCartIdAndBookIdIn(shoppingCartId, quantities.keySet())
+                .stream()
+                .map(cartItemMapper::toDto)
+                .toList();
     }
 
     @Override
@@ -94,6 +119,23 @@ public class ShoppingCartServiceImpl implements ShoppingCartService {
         cartItemRepository.deleteById(cartItem.getId());
     }
 
+    @Override
+    public void flushCart(Long userId) {
+    }
+
+    @Override
+    public void discardCartAfterCommit(Long userId) {
+    }
+
+    private CartItemDtoWithTitle toCartItemDto(ShoppingCartRowDto row) {
+        CartItemDtoWithTitle cartItemDto = new CartItemDtoWithTitle();
+        cartItemDto.setId(row.itemId());
+        cartItemDto.setBookId(row.bookId());
+        cartItemDto.setBookTitle(row.bookTitle());
+        cartItemDto.setQuantity(row.quantity());
+        return cartItemDto;
+    }
+
     CartItem findingCartItemById(Long id) {
         return cartItemRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Item with id " + id + " not found"));
@@ -0,0 +1,206 @@
+package book.store.service.impl;
+
+import book.store.dto.book.BookStockDto;
+import book.store.dto.book.UpdateBookStockRequestDto;
+import book.store.exception.EntityNotFoundException;
+import book.store.exception.QuantityTooLowException;
+import book.store.repository.book.BookStockJdbcRepository;
+import book.store.service.StockService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@Service
+public class StockServiceImpl implements StockService {
+    private final Map<Long, AtomicInteger> hotStock = new ConcurrentHashMap<>();
+    private final Map<Long, Long> allocationIds = new ConcurrentHashMap<>();
+    private final Set<Long> refilling = ConcurrentHashMap.newKeySet();
+
+    private final BookStockJdbcRepository bookStockJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor refillExecutor;
+    private final int refillSize;
+    private volatile boolean running = true;
+
+    public StockServiceImpl(
+            BookStockJdbcRepository bookStockJdbcRepository,
+            PlatformTransactionManager transactionManager,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+            TaskExecutor refillExecutor,
+            @Value("${book.stock.hot-book-ids:}") Set<Long> hotBookIds,
+            @Value("${book.stock.hot-refill-size:50}") int refillSize) {
+        this.bookStockJdbcRepository = bookStockJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refillExecutor = refillExecutor;
+        this.refillSize = refillSize;
+        hotBookIds.forEach(bookId -> hotStock.put(bookId, new AtomicInteger()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookStockDto getStock(Long bookId) {
+        return new BookStockDto(bookId, findStock(bookId));
+    }
+
+    @Override
+    @Transactional
+    public BookStockDto updateStock(Long bookId, UpdateBookStockRequestDto requestDto) {
+        if (requestDto.getStock() != null) {
+            if (!bookStockJdbcRepository.setStock(bookId, requestDto.getStock())) {
+                throw bookNotFound(bookId);
+            }
+        } else if (!bookStockJdbcRepository.addStock(bookId, requestDto.getDelta())) {
+            findStock(bookId);
+            throw new QuantityTooLowException("Stock of book with id " + bookId
+                    + " can't go below zero");
+        }
+        return new BookStockDto(bookId, findStock(bookId));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Long> reserve(Map<Long, Integer> quantitiesByBookId) {
+        Map<Long, Integer> fromDatabase = new HashMap<>();
+        Map<Long, Integer> fromMemory = new HashMap<>();
+        quantitiesByBookId.forEach((bookId, quantity) -> {
+            AtomicInteger allocation = hotStock.get(bookId);
+            if (allocation != null && tryTake(allocation, quantity)) {
+                fromMemory.put(bookId, quantity);
+            } else {
+                if (allocation != null) {
+                    requestRefill(bookId);
+                }
+                fromDatabase.put(bookId, quantity);
+            }
+        });
+        List<Long> insufficient = fromDatabase.isEmpty()
+                ? List.of()
+                : bookStockJdbcRepository.reserve(fromDatabase);
+        if (!insufficient.isEmpty()) {
+            releaseHot(fromMemory);
+            throw new QuantityTooLowException("Not enough stock for books with ids "
+                    + insufficient.stream().sorted().toList());
+        }
+        if (!fromMemory.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) {
+                                releaseHot(fromMemory);
+                            }
+                        }
+                    });
+        }
+        Map<Long, Long> usedAllocationIds = new HashMap<>();
+        fromMemory.keySet().forEach(bookId ->
+                usedAllocationIds.put(bookId, allocationIds.get(bookId)));
+        return usedAllocationIds;
+    }
+
+    @PostConstruct
+    public void returnUnusedAllocations() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Integer> unused = new HashMap<>();
+            bookStockJdbcRepository.findUnusedAllocations().forEach((bookId, quantity) -> {
+                if (quantity > 0) {
+                    unused.put(bookId, quantity);
+                }
+            });
+            if (!unused.isEmpty()) {
+                bookStockJdbcRepository.release(unused);
+            }
+            bookStockJdbcRepository.deleteAllocations();
+        });
+    }
+
+    @PreDestroy
+    public void returnHotStock() {
+        running = false;
+        hotStock.values().forEach(allocation -> allocation.set(0));
+        allocationIds.clear();
+        returnUnusedAllocations();
+    }
+
+    private int findStock(Long bookId) {
+        return bookStockJdbcRepository.findStock(bookId).orElseThrow(() -> bookNotFound(bookId));
+    }
+
+    private EntityNotFoundException bookNotFound(Long bookId) {
+        return new EntityNotFoundException("Book with id " + bookId + " not found");
+    }
+
+    private void requestRefill(Long bookId) {
+        if (!running || !refilling.add(bookId)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    refill(bookId);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refill hot stock of book {}", bookId, e);
+                } finally {
+                    refilling.remove(bookId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refilling.remove(bookId);
+        }
+    }
+
+    private void refill(Long bookId) {
+        if (!running) {
+            return;
+        }
+        Refill refill = transactionTemplate.execute(status -> {
+            int taken = bookStockJdbcRepository.takeUpTo(bookId, refillSize);
+            return taken == 0 ? new Refill(0, null)
+                    : new Refill(taken, bookStockJdbcRepository.allocate(bookId, taken));
+        });
+        if (refill.quantity() > 0) {
+            allocationIds.put(bookId, refill.allocationId());
+            hotStock.get(bookId).addAndGet(refill.quantity());
+        }
+    }
+
+    private boolean tryTake(AtomicInteger allocation, int quantity) {
+        int available = allocation.get();
+        while (available >= quantity) {
+            if (allocation.compareAndSet(available, available - quantity)) {
+                return true;
+            }
+            available = allocation.get();
+        }
+        return false;
+    }
+
+    private void releaseHot(Map<Long, Integer> quantitiesByBookId) {
+        quantitiesByBookId.forEach((bookId, quantity) -> hotStock.get(bookId).addAndGet(quantity));
+    }
+
+    private record Refill(int quantity, Long allocationId) {
+    }
+}
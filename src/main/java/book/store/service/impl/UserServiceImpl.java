@@ -9,6 +9,7 @@ import book.store.model.User;
 import book.store.repository.user.UserRepository;
 import book.store.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -19,6 +20,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
 
     @Override
     public UserResponseDto register(UserRegistrationRequestDto requestDto)
@@ -29,12 +31,14 @@ public class UserServiceImpl implements UserService {
 
         User user = userMapper.toEntity(requestDto);
         user.setPassword(passwordEncoder.encode(requestDto.getPassword()));
-        User savedUser = userRepository.save(user);
-        return userMapper.toDto(savedUser);
+        return userMapper.toDto(userRepository.save(user));
     }
 
     @Override
     public User getUserByEmail(String email) {
+        if (userCache.getUserFromCache(email) instanceof User cachedUser) {
+            return cachedUser;
+        }
         return userRepository.findByEmail(email).orElseThrow(
                 () -> new EntityNotFoundException("User with email " + email
                         + " not found")
@@ -2,10 +2,13 @@ package book.store.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import book.store.dto.book.BookDto;
+import book.store.dto.book.BookStockDto;
 import book.store.dto.book.CreateBookRequestDto;
+import book.store.dto.book.UpdateBookStockRequestDto;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
@@ -14,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
@@ -161,6 +165,75 @@ class BookControllerTest {
         assertEquals(expected.getPrice(), actual.getPrice());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @Sql(scripts = "classpath:database/books/restore-updated-book-id4.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void update_CurrentETagInIfMatchList_Success() throws Exception {
+        String etag = mockMvc.perform(get("/books/4"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/books/4")
+                        .header(HttpHeaders.IF_MATCH, "\"-1-0\", " + etag)
+                        .content(objectMapper.writeValueAsString(createUpdateRequest()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void update_StaleIfMatch_PreconditionFailed() throws Exception {
+        mockMvc.perform(put("/books/4")
+                        .header(HttpHeaders.IF_MATCH, "\"-1-0\"")
+                        .content(objectMapper.writeValueAsString(createUpdateRequest()))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getStock_ExistingBook_ReturnsBackfilledStock() throws Exception {
+        MvcResult result = mockMvc.perform(get("/books/1/stock"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BookStockDto actual = objectMapper.readValue(
+                result.getResponse().getContentAsString(), BookStockDto.class);
+        assertEquals(new BookStockDto(1L, 100), actual);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateStock_StockAndDeltaGiven_BadRequest() throws Exception {
+        UpdateBookStockRequestDto request = new UpdateBookStockRequestDto()
+                .setStock(10)
+                .setDelta(5);
+
+        mockMvc.perform(patch("/books/1/stock")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void export_Csv_StreamsBooksAsAttachment() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/books/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals("attachment; filename=\"books.csv\"",
+                result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION));
+        Assertions.assertTrue(result.getResponse().getContentAsString().startsWith("id,"));
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void search_CorrectBook_Success() throws Exception {
@@ -213,4 +286,12 @@ class BookControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
+
+    private CreateBookRequestDto createUpdateRequest() {
+        return new CreateBookRequestDto()
+                .setTitle("TEST Title")
+                .setAuthor("TEST Author")
+                .setIsbn("TEST224222223")
+                .setPrice(BigDecimal.valueOf(99));
+    }
 }
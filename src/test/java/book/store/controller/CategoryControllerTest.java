@@ -163,8 +163,8 @@ public class CategoryControllerTest {
                 .andExpect(status().isOk())
                 .andReturn();
 
-        String content = result.getResponse().getContentAsString();
-        BookDto[] bookDtos = objectMapper.readValue(content, BookDto[].class);
+        JsonNode root = objectMapper.readTree(result.getResponse().getContentAsString());
+        BookDto[] bookDtos = objectMapper.treeToValue(root.get("content"), BookDto[].class);
 
         assertEquals(2, bookDtos.length);
         assertEquals("Book 1", bookDtos[0].getTitle());
@@ -2,6 +2,7 @@ package book.store.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import book.store.dto.book.BookDtoWithoutCategoryIds;
 import book.store.model.Book;
 import book.store.repository.book.BookRepository;
 import java.util.List;
@@ -10,6 +11,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -22,11 +26,30 @@ public class BookRepositoryTest {
     void findAllByCategoryId_BooksInDatabaseWithCategoryIdOne_Success() {
         Long categoryId = 1L;
 
-        List<Book> actual = bookRepository.findAllByCategoryId(categoryId);
+        Page<BookDtoWithoutCategoryIds> actual =
+                bookRepository.findAllByCategoryId(categoryId, PageRequest.of(0, 10));
 
         Assertions.assertNotNull(actual);
+        assertEquals(2, actual.getTotalElements());
+        assertEquals("Book 1", actual.getContent().get(0).getTitle());
+        assertEquals("1234567890126", actual.getContent().getLast().getIsbn());
+    }
+
+    @Test
+    void findAllByCategoryIdAfterId_BooksInDatabaseWithCategoryIdOne_ReturnBooksAfterId() {
+        List<BookDtoWithoutCategoryIds> actual =
+                bookRepository.findAllByCategoryIdAfterId(1L, 1L, Limit.of(10));
+
+        assertEquals(1, actual.size());
+        assertEquals("1234567890126", actual.getFirst().getIsbn());
+    }
+
+    @Test
+    void findAllAfterId_BooksInDatabase_ReturnNextBooksOrderedById() {
+        List<Book> actual = bookRepository.findAllAfterId(1L, Limit.of(2));
+
         assertEquals(2, actual.size());
-        assertEquals("Book 1", actual.get(0).getTitle());
-        assertEquals("1234567890126", actual.getLast().getIsbn());
+        assertEquals(2L, actual.get(0).getId());
+        assertEquals(3L, actual.get(1).getId());
     }
 }
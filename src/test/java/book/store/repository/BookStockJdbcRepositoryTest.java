@@ -0,0 +1,63 @@
+package book.store.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import book.store.repository.book.BookStockJdbcRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BookStockJdbcRepository.class)
+@Sql(scripts = "classpath:database/books/add-stock-allocations.sql",
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/books/delete-stock-allocations.sql",
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class BookStockJdbcRepositoryTest {
+
+    @Autowired
+    private BookStockJdbcRepository bookStockJdbcRepository;
+
+    @Test
+    void reserve_OneBookShortOfStock_DecrementsOnlyBooksWithEnoughStock() {
+        List<Long> actual = bookStockJdbcRepository.reserve(Map.of(1L, 4, 2L, 4));
+
+        assertEquals(List.of(2L), actual);
+        assertEquals(Optional.of(1), bookStockJdbcRepository.findStock(1L));
+        assertEquals(Optional.of(3), bookStockJdbcRepository.findStock(2L));
+    }
+
+    @Test
+    void takeUpTo_LessStockThanRequested_TakesWhatIsLeft() {
+        int first = bookStockJdbcRepository.takeUpTo(2L, 10);
+        int second = bookStockJdbcRepository.takeUpTo(2L, 10);
+
+        assertEquals(3, first);
+        assertEquals(0, second);
+        assertEquals(Optional.of(0), bookStockJdbcRepository.findStock(2L));
+    }
+
+    @Test
+    void findUnusedAllocations_ItemsLinkedToAllocations_ReturnsLeftoverPerBook() {
+        Map<Long, Integer> actual = bookStockJdbcRepository.findUnusedAllocations();
+
+        assertEquals(Map.of(1L, 35, 2L, 0), actual);
+    }
+
+    @Test
+    void deleteAllocations_ItemsLinkedToAllocations_LeavesNothingToRecover() {
+        bookStockJdbcRepository.deleteAllocations();
+
+        assertEquals(Map.of(), bookStockJdbcRepository.findUnusedAllocations());
+    }
+}
@@ -0,0 +1,67 @@
+package book.store.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import book.store.repository.book.BookRepository;
+import book.store.repository.book.BookSuggestionIndex;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSuggestionIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSuggestionIndex bookSuggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        bookSuggestionIndex = new BookSuggestionIndex(bookRepository);
+        bookSuggestionIndex.index(1L, "The Hobbit", "J.R.R. Tolkien");
+        bookSuggestionIndex.index(2L, "The Lord of the Rings", "J.R.R. Tolkien");
+        bookSuggestionIndex.index(3L, "Thinking in Java", "Bruce Eckel");
+    }
+
+    @Test
+    void suggest_PrefixOfTitles_ReturnMatchingTitlesInOrder() {
+        List<String> actual = bookSuggestionIndex.suggest("the ", 10);
+
+        assertEquals(List.of("The Hobbit", "The Lord of the Rings"), actual);
+    }
+
+    @Test
+    void suggest_PrefixOfAuthor_ReturnAuthorOnce() {
+        List<String> actual = bookSuggestionIndex.suggest("j.r", 10);
+
+        assertEquals(List.of("J.R.R. Tolkien"), actual);
+    }
+
+    @Test
+    void suggest_MoreMatchesThanLimit_ReturnLimitedList() {
+        List<String> actual = bookSuggestionIndex.suggest("th", 2);
+
+        assertEquals(List.of("The Hobbit", "The Lord of the Rings"), actual);
+    }
+
+    @Test
+    void index_UpdatedBook_ReplacePreviousSuggestions() {
+        bookSuggestionIndex.index(1L, "There and Back Again", "J.R.R. Tolkien");
+
+        assertEquals(List.of("The Lord of the Rings", "There and Back Again"),
+                bookSuggestionIndex.suggest("the", 10));
+    }
+
+    @Test
+    void remove_DeletedBook_NoSuggestions() {
+        bookSuggestionIndex.remove(3L);
+
+        assertTrue(bookSuggestionIndex.suggest("bruce", 10).isEmpty());
+        assertTrue(bookSuggestionIndex.suggest("thinking", 10).isEmpty());
+    }
+}
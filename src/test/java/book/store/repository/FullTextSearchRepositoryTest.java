@@ -0,0 +1,67 @@
+package book.store.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import book.store.model.Book;
+import book.store.repository.book.BookRepository;
+import book.store.repository.book.specifications.FullTextSpecificationProvider;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql(scripts = "classpath:database/books/add-full-text-books.sql",
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/books/delete-full-text-books.sql",
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class FullTextSearchRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private final FullTextSpecificationProvider fullTextSpecificationProvider =
+            new FullTextSpecificationProvider();
+
+    @Test
+    void findAll_TextSpecification_ReturnsMatchingBooksMostRelevantFirst() {
+        Page<Book> actual = bookRepository.findAll(
+                fullTextSpecificationProvider.getSpecification(new String[]{"arrakis"}),
+                PageRequest.of(0, 10));
+
+        assertEquals(2, actual.getTotalElements());
+        assertEquals(List.of(101L, 102L), actual.getContent().stream()
+                .map(Book::getId)
+                .toList());
+    }
+
+    @Test
+    void findAll_TextSpecificationWithSeveralWords_MatchesAnyWord() {
+        String[] words = {"caladan", "sandworms"};
+
+        Page<Book> actual = bookRepository.findAll(
+                fullTextSpecificationProvider.getSpecification(words), PageRequest.of(0, 10));
+
+        assertEquals(List.of(101L, 103L), actual.getContent().stream()
+                .map(Book::getId)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void findAll_TextSpecificationWithoutMatches_ReturnsEmptyPage() {
+        Page<Book> actual = bookRepository.findAll(
+                fullTextSpecificationProvider.getSpecification(new String[]{"hogwarts"}),
+                PageRequest.of(0, 10));
+
+        assertEquals(0, actual.getTotalElements());
+    }
+}
@@ -0,0 +1,84 @@
+package book.store.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import book.store.model.Order;
+import book.store.repository.order.OrderRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Sql(scripts = "classpath:database/orders/add-user-order-history.sql",
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:database/orders/delete-user-order-history.sql",
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class OrderRepositoryTest {
+    private static final Long BEFORE_FIXTURE_ID = 200L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void findFirstByUserIdAndStatus_SeveralOrdersOnePending_ReturnsPendingOrder() {
+        Optional<Order> actual = orderRepository.findFirstByUserIdAndStatusOrderByIdDesc(
+                1L, Order.Status.PENDING);
+
+        assertTrue(actual.isPresent());
+        assertEquals(202L, actual.get().getId());
+    }
+
+    @Test
+    void findFirstByUserIdAndStatus_NoOrderWithStatus_ReturnsEmpty() {
+        Optional<Order> actual = orderRepository.findFirstByUserIdAndStatusOrderByIdDesc(
+                2L, Order.Status.COMPLETED);
+
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    void findIdsByFilterAfterId_NoFilter_ReturnsNotDeletedIdsInOrder() {
+        List<Long> actual = orderRepository.findIdsByFilterAfterId(null, null, null,
+                BEFORE_FIXTURE_ID, Limit.of(10));
+
+        assertEquals(List.of(201L, 202L, 203L, 205L), actual);
+    }
+
+    @Test
+    void findIdsByFilterAfterId_StatusAndDateRange_ReturnsMatchingIds() {
+        List<Long> actual = orderRepository.findIdsByFilterAfterId(Order.Status.PENDING,
+                LocalDateTime.of(2024, 1, 15, 0, 0), LocalDateTime.of(2024, 5, 1, 10, 0),
+                BEFORE_FIXTURE_ID, Limit.of(10));
+
+        assertEquals(List.of(202L), actual);
+    }
+
+    @Test
+    void findIdsByFilterAfterId_LastIdAndLimit_ReturnsNextChunk() {
+        List<Long> actual = orderRepository.findIdsByFilterAfterId(null, null, null, 201L,
+                Limit.of(2));
+
+        assertEquals(List.of(202L, 203L), actual);
+    }
+
+    @Test
+    void updateStatusByIdIn_MixedStatuses_UpdatesOnlyOrdersInPreviousStatuses() {
+        int actual = orderRepository.updateStatusByIdIn(List.of(201L, 202L, 204L, 205L),
+                Order.Status.COMPLETED, List.of(Order.Status.PENDING));
+
+        assertEquals(2, actual);
+        assertEquals(List.of(201L, 202L, 205L), orderRepository.findIdsByFilterAfterId(
+                Order.Status.COMPLETED, null, null, BEFORE_FIXTURE_ID, Limit.of(10)));
+    }
+}
@@ -0,0 +1,89 @@
+package book.store.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import book.store.repository.book.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class RowCountCacheTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private RowCountCache rowCountCache;
+
+    @BeforeEach
+    void setUp() {
+        rowCountCache = new RowCountCache(Duration.ofMinutes(1), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void count_CalledTwice_CountsOnce() {
+        when(bookRepository.count()).thenReturn(42L);
+
+        assertEquals(42L, rowCountCache.count(bookRepository));
+        assertEquals(42L, rowCountCache.count(bookRepository));
+
+        verify(bookRepository, times(1)).count();
+    }
+
+    @Test
+    void count_AfterEvict_CountsAgain() {
+        when(bookRepository.count()).thenReturn(42L, 43L);
+
+        assertEquals(42L, rowCountCache.count(bookRepository));
+        rowCountCache.evict(bookRepository);
+
+        assertEquals(43L, rowCountCache.count(bookRepository));
+    }
+
+    @Test
+    void toPage_CachedCount_UsedAsTotal() {
+        when(bookRepository.count()).thenReturn(42L);
+
+        Page<String> actual = rowCountCache.toPage(
+                new SliceImpl<>(List.of("a", "b"), PageRequest.of(0, 2), true), bookRepository);
+
+        assertEquals(42L, actual.getTotalElements());
+        assertEquals(21, actual.getTotalPages());
+        assertTrue(actual.hasNext());
+    }
+
+    @Test
+    void toPage_StaleCountBehindSlice_KeepsNextPage() {
+        when(bookRepository.count()).thenReturn(3L);
+
+        Page<String> actual = rowCountCache.toPage(
+                new SliceImpl<>(List.of("c", "d"), PageRequest.of(1, 2), true), bookRepository);
+
+        assertEquals(5L, actual.getTotalElements());
+        assertTrue(actual.hasNext());
+    }
+
+    @Test
+    void toPage_LastSlice_TotalFromSliceWithoutCount() {
+        Page<String> actual = rowCountCache.toPage(
+                new SliceImpl<>(List.of("e"), PageRequest.of(2, 2), false), bookRepository);
+
+        assertEquals(5L, actual.getTotalElements());
+        assertFalse(actual.hasNext());
+        verify(bookRepository, never()).count();
+    }
+}
@@ -0,0 +1,78 @@
+package book.store.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import book.store.repository.shoppingcart.ShoppingCartJdbcRepository;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ShoppingCartJdbcRepository.class)
+@Sql(scripts = {"classpath:database/shoppingcart/add-shopping-cart.sql",
+        "classpath:database/shoppingcart/add-cart-item.sql"},
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = {"classpath:database/shoppingcart/delete-added-cart-item.sql",
+        "classpath:database/shoppingcart/delete-added-shopping-cart.sql"},
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED),
+        executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ShoppingCartJdbcRepositoryTest {
+    private static final Long EXISTING_SHOPPING_CART_ID = 1L;
+    private static final Long USER_WITH_CART_ID = 2L;
+    private static final Long USER_WITHOUT_CART_ID = 1L;
+
+    @Autowired
+    private ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findOrCreateCartId_UserWithoutCart_InsertsCart() {
+        Long actual = shoppingCartJdbcRepository.findOrCreateCartId(USER_WITHOUT_CART_ID);
+
+        Long expected = jdbcTemplate.queryForObject(
+                "SELECT id FROM shopping_carts WHERE user_id = ?", Long.class,
+                USER_WITHOUT_CART_ID);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void findOrCreateCartId_UserWithCart_ReturnsExistingCartId() {
+        Long actual = shoppingCartJdbcRepository.findOrCreateCartId(USER_WITH_CART_ID);
+
+        assertEquals(EXISTING_SHOPPING_CART_ID, actual);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM shopping_carts WHERE user_id = ?", Integer.class,
+                USER_WITH_CART_ID));
+    }
+
+    @Test
+    void addQuantities_NewAndExistingBooks_InsertsNewItemAndIncrementsExisting() {
+        Map<Long, Integer> quantitiesByBookId = new LinkedHashMap<>();
+        quantitiesByBookId.put(1L, 2);
+        quantitiesByBookId.put(2L, 3);
+
+        shoppingCartJdbcRepository.addQuantities(EXISTING_SHOPPING_CART_ID, quantitiesByBookId);
+
+        assertEquals(Map.of(1L, 3, 2L, 3), findQuantitiesByBookId());
+    }
+
+    private Map<Long, Integer> findQuantitiesByBookId() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT book_id, quantity FROM cart_items "
+                        + "WHERE shopping_cart_id = ? ORDER BY book_id",
+                rs -> {
+                    quantities.put(rs.getLong("book_id"), rs.getInt("quantity"));
+                }, EXISTING_SHOPPING_CART_ID);
+        return quantities;
+    }
+}
@@ -0,0 +1,82 @@
+package book.store.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import book.store.model.Role;
+import book.store.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CaffeineUserCacheTest {
+
+    private CaffeineUserCache userCache;
+
+    @BeforeEach
+    void setUp() {
+        userCache = new CaffeineUserCache(Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void getUserFromCache_UnknownUser_ReturnsNull() {
+        assertNull(userCache.getUserFromCache("mail@test.com"));
+    }
+
+    @Test
+    void getUserFromCache_CachedUser_ReturnsCopyWithRoles() {
+        User user = createUser();
+        userCache.putUserInCache(user);
+
+        User actual = (User) userCache.getUserFromCache("mail@test.com");
+
+        assertNotSame(user, actual);
+        assertEquals(1L, actual.getId());
+        assertEquals("password", actual.getPassword());
+        assertEquals(List.of("ROLE_USER"), actual.getAuthorities().stream()
+                .map(authority -> authority.getAuthority())
+                .toList());
+    }
+
+    @Test
+    void getUserFromCache_ChangedCopy_DoesNotAffectCache() {
+        User entity = createUser();
+        userCache.putUserInCache(entity);
+        entity.setFirstName("Changed");
+
+        User copy = (User) userCache.getUserFromCache("mail@test.com");
+        copy.setShippingAddress("Changed");
+        copy.getRoles().clear();
+
+        User actual = (User) userCache.getUserFromCache("mail@test.com");
+        assertEquals("John", actual.getFirstName());
+        assertNull(actual.getShippingAddress());
+        assertEquals(1, actual.getRoles().size());
+    }
+
+    @Test
+    void removeUserFromCache_CachedUser_Evicts() {
+        userCache.putUserInCache(createUser());
+
+        userCache.removeUserFromCache("mail@test.com");
+
+        assertNull(userCache.getUserFromCache("mail@test.com"));
+    }
+
+    private User createUser() {
+        Role role = new Role();
+        role.setId(2L);
+        role.setRoleName(Role.RoleName.USER);
+        return new User()
+                .setId(1L)
+                .setEmail("mail@test.com")
+                .setPassword("password")
+                .setFirstName("John")
+                .setLastName("Doe")
+                .setRoles(Set.of(role));
+    }
+}
@@ -0,0 +1,74 @@
+package book.store.security;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Date;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtClaimsCacheTest {
+    private static final String TOKEN = "header.payload.signature";
+
+    @Mock
+    private Function<String, Claims> claimsParser;
+
+    private JwtClaimsCache jwtClaimsCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtClaimsCache = new JwtClaimsCache(100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_SameTokenTwice_ParsesOnce() {
+        Claims claims = createClaims(60_000);
+        when(claimsParser.apply(TOKEN)).thenReturn(claims);
+
+        jwtClaimsCache.get(TOKEN, claimsParser);
+        Claims actual = jwtClaimsCache.get(TOKEN, claimsParser);
+
+        assertSame(claims, actual);
+        verify(claimsParser, times(1)).apply(TOKEN);
+    }
+
+    @Test
+    void get_AfterTokenExpiration_ParsesAgain() throws InterruptedException {
+        when(claimsParser.apply(TOKEN)).thenReturn(createClaims(200));
+
+        jwtClaimsCache.get(TOKEN, claimsParser);
+        Thread.sleep(400);
+        jwtClaimsCache.get(TOKEN, claimsParser);
+
+        verify(claimsParser, times(2)).apply(TOKEN);
+    }
+
+    @Test
+    void get_RejectedToken_IsNotCached() {
+        when(claimsParser.apply(TOKEN)).thenThrow(new SignatureException("Invalid signature"));
+
+        assertThrows(SignatureException.class, () -> jwtClaimsCache.get(TOKEN, claimsParser));
+        assertThrows(SignatureException.class, () -> jwtClaimsCache.get(TOKEN, claimsParser));
+
+        verify(claimsParser, times(2)).apply(TOKEN);
+    }
+
+    private Claims createClaims(long millisToExpiration) {
+        return Jwts.claims()
+                .subject("mail@test.com")
+                .expiration(new Date(System.currentTimeMillis() + millisToExpiration))
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package book.store.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+public class JwtUtilTest {
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final JwtUtil jwtUtil = new JwtUtil(60_000, SECRET);
+
+    @Test
+    void parseClaims_ValidToken_ReturnsSubjectAndExpiration() {
+        String token = jwtUtil.generateToken("mail@test.com");
+
+        Claims claims = jwtUtil.parseClaims(token);
+
+        assertEquals("mail@test.com", claims.getSubject());
+        assertTrue(jwtUtil.isValid(claims));
+    }
+
+    @Test
+    void parseClaims_TamperedPayload_ThrowsException() {
+        String[] parts = jwtUtil.generateToken("mail@test.com").split("\\.");
+        String forged = new JwtUtil(60_000, SECRET).generateToken("admin@test.com")
+                .split("\\.")[1];
+
+        assertThrows(JwtException.class,
+                () -> jwtUtil.parseClaims(parts[0] + "." + forged + "." + parts[2]));
+    }
+
+    @Test
+    void parseClaims_TokenSignedWithOtherKey_ThrowsException() {
+        String token = new JwtUtil(60_000, SECRET.replace('0', 'x'))
+                .generateToken("mail@test.com");
+
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(token));
+    }
+
+    @Test
+    void parseClaims_ExpiredToken_ThrowsException() {
+        String token = new JwtUtil(-1_000, SECRET).generateToken("mail@test.com");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseClaims(token));
+    }
+}
@@ -0,0 +1,279 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import book.store.dto.book.BookDataFormat;
+import book.store.dto.book.BookImportResultDto;
+import book.store.dto.book.BookImportRowDto;
+import book.store.exception.InvalidImportFileException;
+import book.store.model.Category;
+import book.store.repository.RowCountCache;
+import book.store.repository.book.BookJdbcRepository;
+import book.store.repository.book.BookRepository;
+import book.store.repository.book.BookSuggestionIndex;
+import book.store.repository.category.CategoryRepository;
+import book.store.service.impl.BookImportServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class BookImportServiceTest {
+
+    @Mock
+    private BookJdbcRepository bookJdbcRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private BookSuggestionIndex bookSuggestionIndex;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private Cache cache;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private jakarta.persistence.Cache jpaCache;
+    @Mock
+    private org.hibernate.Cache hibernateCache;
+    @Mock
+    private RowCountCache rowCountCache;
+
+    private BookImportServiceImpl bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        bookImportService = new BookImportServiceImpl(bookJdbcRepository, bookRepository,
+                categoryRepository, bookSuggestionIndex,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                transactionTemplate, cacheManager, entityManagerFactory, rowCountCache, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importBooks_FiveValidNdjsonRows_UpsertsInBatchesOfBatchSize() throws IOException {
+        mockWrites();
+        String ndjson = """
+                {"title":"A","author":"X","isbn":"1000000000001","price":1.00}
+                {"title":"B","author":"X","isbn":"1000000000002","price":2.00}
+
+                {"title":"C","author":"X","isbn":"1000000000003","price":3.00}
+                {"title":"D","author":"X","isbn":"1000000000004","price":4.00}
+                {"title":"E","author":"X","isbn":"1000000000005","price":5.00}
+                """;
+
+        BookImportResultDto actual = bookImportService.importBooks(BookDataFormat.NDJSON,
+                toStream(ndjson));
+
+        ArgumentCaptor<List<BookImportRowDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookJdbcRepository, times(3)).upsert(captor.capture());
+        assertEquals(List.of(2, 2, 1), captor.getAllValues().stream().map(List::size).toList());
+        assertEquals(5, actual.processed());
+        assertEquals(5, actual.imported());
+        assertEquals(0, actual.failed());
+        verify(bookSuggestionIndex, times(5)).index(any(), any(), any());
+        verify(cache, times(2)).clear();
+        verify(hibernateCache).evictCollectionData("book.store.model.Book.categories");
+        verify(rowCountCache).evict(bookRepository);
+    }
+
+    @Test
+    void importBooks_InvalidAndMalformedRows_ReportsLinesAndImportsRest() throws IOException {
+        mockWrites();
+        String ndjson = """
+                {"title":"A","author":"X","isbn":"1000000000001","price":1.00}
+                {"title":"B","author":"X","isbn":"123","price":2.00}
+                {"title":"C",
+                """;
+
+        BookImportResultDto actual = bookImportService.importBooks(BookDataFormat.NDJSON,
+                toStream(ndjson));
+
+        assertEquals(3, actual.processed());
+        assertEquals(1, actual.imported());
+        assertEquals(2, actual.failed());
+        assertEquals(List.of(2L, 3L), actual.errors().stream()
+                .map(error -> error.line())
+                .toList());
+    }
+
+    @Test
+    void importBooks_CsvWithQuotedValuesAndUnknownCategory_RejectsOnlyUnknown()
+            throws IOException {
+        mockWrites();
+        when(categoryRepository.findAllById(anyCollection()))
+                .thenReturn(List.of(new Category().setId(1L)));
+        String csv = "isbn,title,author,price,categoryIds\r\n"
+                + "1000000000001,\"Dune, Part \"\"One\"\"\",Herbert,9.99,1\r\n"
+                + "1000000000002,Other,Author,5.00,1;7\r\n";
+
+        BookImportResultDto actual = bookImportService.importBooks(BookDataFormat.CSV,
+                toStream(csv));
+
+        assertEquals(1, actual.imported());
+        assertEquals(1, actual.failed());
+        assertEquals(3L, actual.errors().get(0).line());
+        assertEquals("categoryIds: unknown categories [7]", actual.errors().get(0).message());
+        verify(bookSuggestionIndex).index(10L, "Dune, Part \"One\"", "Herbert");
+        verify(bookJdbcRepository).replaceCategories(Map.of(10L, Set.of(1L)));
+    }
+
+    @Test
+    void importBooks_CsvWithMultilineQuotedValue_ReportsPhysicalLines() throws IOException {
+        mockWrites();
+        String csv = "isbn,title,author,price,description\r\n"
+                + "1000000000001,Dune,Herbert,9.99,\"First line\r\nsecond line\"\r\n"
+                + "\r\n"
+                + "1000000000002,Emma,Austen,-5.00,\r\n";
+
+        BookImportResultDto actual = bookImportService.importBooks(BookDataFormat.CSV,
+                toStream(csv));
+
+        assertEquals(1, actual.imported());
+        assertEquals(1, actual.failed());
+        assertEquals(5L, actual.errors().get(0).line());
+    }
+
+    @Test
+    void importBooks_ChunkRejectedByDatabase_RetriesRowByRow() throws IOException {
+        mockWrites();
+        doThrow(new DataIntegrityViolationException("Data too long for column 'cover_image'"))
+                .when(bookJdbcRepository).upsert(argThat(books -> books.stream()
+                        .anyMatch(book -> book.getIsbn().equals("1000000000002"))));
+        String ndjson = """
+                {"title":"A","author":"X","isbn":"1000000000001","price":1.00}
+                {"title":"B","author":"X","isbn":"1000000000002","price":2.00}
+                """;
+
+        BookImportResultDto actual = bookImportService.importBooks(BookDataFormat.NDJSON,
+                toStream(ndjson));
+
+        assertEquals(1, actual.imported());
+        assertEquals(1, actual.failed());
+        assertEquals(2L, actual.errors().get(0).line());
+        verify(bookSuggestionIndex).index(10L, "A", "X");
+        verify(bookSuggestionIndex, never()).index(eq(11L), any(), any());
+    }
+
+    @Test
+    void importBooks_DuplicateIsbnInChunk_ImportsLastRowOnly() throws IOException {
+        mockWrites();
+        String ndjson = """
+                {"title":"A","author":"X","isbn":"1000000000001","price":1.00}
+                {"title":"A2","author":"X","isbn":"1000000000001","price":1.50}
+                """;
+
+        BookImportResultDto actual = bookImportService.importBooks(BookDataFormat.NDJSON,
+                toStream(ndjson));
+
+        assertEquals(2, actual.processed());
+        assertEquals(1, actual.imported());
+        assertEquals(1, actual.failed());
+        assertEquals("isbn: superseded by line 2", actual.errors().get(0).message());
+        verify(bookSuggestionIndex).index(10L, "A2", "X");
+    }
+
+    @Test
+    void importBooks_StreamFailsAfterCommittedChunk_StillEvictsCaches() {
+        mockWrites();
+        String ndjson = """
+                {"title":"A","author":"X","isbn":"1000000000001","price":1.00}
+                {"title":"B","author":"X","isbn":"1000000000002","price":2.00}
+                """;
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        assertThrows(IOException.class, () -> bookImportService.importBooks(
+                BookDataFormat.NDJSON, new SequenceInputStream(toStream(ndjson), broken)));
+        verify(bookJdbcRepository).upsert(anyList());
+        verify(cache, times(2)).clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importBooks_CsvWithStockColumn_PassesStockAndRejectsNegative() throws IOException {
+        mockWrites();
+        String csv = "isbn,title,author,price,stock\n"
+                + "1000000000001,Dune,Herbert,9.99,7\n"
+                + "1000000000002,Emma,Austen,5.00,\n"
+                + "1000000000003,Ulysses,Joyce,5.00,-1\n";
+
+        BookImportResultDto actual = bookImportService.importBooks(BookDataFormat.CSV,
+                toStream(csv));
+
+        ArgumentCaptor<List<BookImportRowDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookJdbcRepository).upsert(captor.capture());
+        assertEquals(Arrays.asList(7, null), captor.getValue().stream()
+                .map(BookImportRowDto::getStock)
+                .toList());
+        assertEquals(1, actual.failed());
+        assertEquals("stock: Stock can't be negative", actual.errors().get(0).message());
+    }
+
+    @Test
+    void importBooks_CsvHeaderWithoutPrice_ThrowsException() {
+        String csv = "isbn,title,author\n1000000000001,Dune,Herbert\n";
+
+        assertThrows(InvalidImportFileException.class,
+                () -> bookImportService.importBooks(BookDataFormat.CSV, toStream(csv)));
+        verify(bookJdbcRepository, never()).upsert(anyList());
+    }
+
+    private void mockWrites() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(bookJdbcRepository.findIdsByIsbn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<String>>getArgument(0).stream()
+                        .collect(Collectors.toMap(Function.identity(),
+                                isbn -> Long.parseLong(isbn.substring(12)) + 9)));
+        when(cacheManager.getCache(any())).thenReturn(cache);
+        when(entityManagerFactory.getCache()).thenReturn(jpaCache);
+        when(jpaCache.unwrap(org.hibernate.Cache.class)).thenReturn(hibernateCache);
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
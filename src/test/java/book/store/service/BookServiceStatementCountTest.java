@@ -0,0 +1,40 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import book.store.dto.book.BookDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+@SpringBootTest
+public class BookServiceStatementCountTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findAll_PagesOfDifferentSize_SameStatementCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        Page<BookDto> onePage = bookService.findAll(PageRequest.of(0, 1));
+        long onePageStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Page<BookDto> threePage = bookService.findAll(PageRequest.of(0, 3));
+        long threePageStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(1, onePage.getNumberOfElements());
+        assertEquals(3, threePage.getNumberOfElements());
+        assertEquals(onePageStatements, threePageStatements);
+    }
+}
@@ -2,34 +2,65 @@ package book.store.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import book.store.dto.book.BookCategoryIdDto;
+import book.store.dto.book.BookDataFormat;
 import book.store.dto.book.BookDto;
+import book.store.dto.book.BookExportRowDto;
 import book.store.dto.book.BookSearchParametersDto;
+import book.store.dto.book.BookVersionDto;
 import book.store.dto.book.CreateBookRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.page.KeysetCursor;
+import book.store.dto.version.ResourceVersionDto;
 import book.store.exception.EntityNotFoundException;
+import book.store.exception.InvalidCursorException;
+import book.store.exception.PreconditionFailedException;
 import book.store.mapper.BookMapper;
 import book.store.model.Book;
 import book.store.repository.book.BookRepository;
 import book.store.repository.book.BookSpecificationBuilderImpl;
+import book.store.repository.book.BookSuggestionIndex;
+import book.store.repository.category.CategoryRepository;
 import book.store.service.impl.BookServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @ExtendWith(MockitoExtension.class)
 public class BookServiceTest {
@@ -43,6 +74,12 @@ public class BookServiceTest {
     private BookMapper bookMapper;
     @Mock
     private BookSpecificationBuilderImpl bookSpecificationBuilder;
+    @Mock
+    private BookSuggestionIndex bookSuggestionIndex;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
     void createBook_ValidRequestDto_Success() {
@@ -61,6 +98,7 @@ public class BookServiceTest {
         BookDto saveBookDto = bookService.save(requestDto);
 
         assertEquals(saveBookDto, bookDto);
+        verify(bookSuggestionIndex).index(book.getId(), book.getTitle(), book.getAuthor());
     }
 
     @Test
@@ -76,7 +114,7 @@ public class BookServiceTest {
         BookDto expected = createBookDtoFromBook(book);
 
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        when(bookMapper.toDto(book)).thenReturn(expected);
+        when(bookMapper.toDto(book, Set.of())).thenReturn(expected);
 
         BookDto actual = bookService.findById(bookId);
 
@@ -108,9 +146,11 @@ public class BookServiceTest {
         Page<Book> bookPage = new PageImpl<>(bookList, pageable, bookList.size());
 
         when(bookRepository.findAll(pageable)).thenReturn(bookPage);
-        when(bookMapper.toDto(bookOne)).thenReturn(bookDtoOne);
-        when(bookMapper.toDto(bookTwo)).thenReturn(bookDtoTwo);
-        when(bookMapper.toDto(bookThree)).thenReturn(bookDtoThree);
+        when(bookRepository.findCategoryIdsByBookIds(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                new BookCategoryIdDto(1L, 1L), new BookCategoryIdDto(1L, 2L)));
+        when(bookMapper.toDto(bookOne, Set.of(1L, 2L))).thenReturn(bookDtoOne);
+        when(bookMapper.toDto(bookTwo, Set.of())).thenReturn(bookDtoTwo);
+        when(bookMapper.toDto(bookThree, Set.of())).thenReturn(bookDtoThree);
 
         Page<BookDto> actual = bookService.findAll(pageable);
 
@@ -120,6 +160,59 @@ public class BookServiceTest {
         Assertions.assertEquals(1, actual.getTotalPages());
     }
 
+    @Test
+    void getAll_MoreBooksThanPageSize_KeepRepositoryTotal() {
+        Book book = createBook(1L, "Book 1", "Author 1", "1234567890121", "10.10");
+        BookDto bookDto = createBookDtoFromBook(book);
+        Pageable pageable = PageRequest.of(0, 1);
+        Page<Book> bookPage = new PageImpl<>(List.of(book), pageable, 25);
+
+        when(bookRepository.findAll(pageable)).thenReturn(bookPage);
+        when(bookRepository.findCategoryIdsByBookIds(List.of(1L))).thenReturn(List.of());
+        when(bookMapper.toDto(book, Set.of())).thenReturn(bookDto);
+
+        Page<BookDto> actual = bookService.findAll(pageable);
+
+        Assertions.assertEquals(25, actual.getTotalElements());
+        Assertions.assertEquals(25, actual.getTotalPages());
+    }
+
+    @Test
+    void findAllByCursor_MoreBooksThanSize_ReturnNextCursor() {
+        Book bookOne = createBook(1L, "Book 1", "Author 1", "1234567890121", "10.10");
+        Book bookTwo = createBook(2L, "Book 2", "Author 2", "1234567890122", "20.20");
+        Book bookThree = createBook(3L, "Book 3", "Author 1", "1234567890123", "20.20");
+        BookDto bookDtoOne = createBookDtoFromBook(bookOne);
+        BookDto bookDtoTwo = createBookDtoFromBook(bookTwo);
+
+        when(bookRepository.findAllAfterId(0L, Limit.of(3)))
+                .thenReturn(List.of(bookOne, bookTwo, bookThree));
+        when(bookMapper.toDto(bookOne, Set.of())).thenReturn(bookDtoOne);
+        when(bookMapper.toDto(bookTwo, Set.of())).thenReturn(bookDtoTwo);
+
+        CursorPageDto<BookDto> actual = bookService.findAllByCursor(null, 2);
+
+        assertEquals(List.of(bookDtoOne, bookDtoTwo), actual.content());
+        assertTrue(actual.hasNext());
+        assertEquals(2L, KeysetCursor.decode(actual.nextCursor()).lastId());
+    }
+
+    @Test
+    void findAllByCursor_LastPart_ReturnNoCursor() {
+        Book bookThree = createBook(3L, "Book 3", "Author 1", "1234567890123", "20.20");
+        BookDto bookDtoThree = createBookDtoFromBook(bookThree);
+        String cursor = new KeysetCursor(2L).encode();
+
+        when(bookRepository.findAllAfterId(2L, Limit.of(3))).thenReturn(List.of(bookThree));
+        when(bookMapper.toDto(bookThree, Set.of())).thenReturn(bookDtoThree);
+
+        CursorPageDto<BookDto> actual = bookService.findAllByCursor(cursor, 2);
+
+        assertEquals(List.of(bookDtoThree), actual.content());
+        assertFalse(actual.hasNext());
+        assertNull(actual.nextCursor());
+    }
+
     @Test
     void update_BookInDatabase_Success() {
         Long bookId = 1L;
@@ -128,7 +221,8 @@ public class BookServiceTest {
                 .setAuthor("UPDATED AUTHOR Author")
                 .setIsbn("1234567890121")
                 .setPrice(new BigDecimal("10"));
-        Book book = createBook(bookId, "Book 1", "Author 1", "1234567890121", "10");
+        Book book = createBook(bookId, "Book 1", "Author 1", "1234567890121", "10")
+                .setVersion(3L);
         Book bookUpdated = createBook(bookId, bookUpdatedDto.getTitle(), bookUpdatedDto.getAuthor(), bookUpdatedDto.getIsbn(), bookUpdatedDto.getIsbn());
         BookDto bookUpdateDto = createBookDtoFromBook(bookUpdated);
 
@@ -137,11 +231,49 @@ public class BookServiceTest {
         when(bookMapper.toDto(bookUpdated)).thenReturn(bookUpdateDto);
         when(bookRepository.save(bookUpdated)).thenReturn(bookUpdated);
 
-        BookDto actual = bookService.updateBook(bookId, bookUpdatedDto);
+        BookDto actual = bookService.updateBook(bookId, bookUpdatedDto, null);
 
         assertEquals("UPDATED TITLE Book 1", actual.getTitle());
         assertEquals("UPDATED AUTHOR Author", actual.getAuthor());
         assertEquals(book.getIsbn(), actual.getIsbn());
+        assertEquals(3L, bookUpdated.getVersion());
+    }
+
+    @Test
+    void update_IfMatchListWithCurrentETag_Success() {
+        Long bookId = 1L;
+        CreateBookRequestDto bookUpdatedDto = new CreateBookRequestDto()
+                .setTitle("UPDATED TITLE Book 1");
+        Book book = createBook(bookId, "Book 1", "Author 1", "1234567890121", "10")
+                .setVersion(3L);
+        Book bookUpdated = createBook(bookId, "UPDATED TITLE Book 1", "Author 1",
+                "1234567890121", "10");
+
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookMapper.toEntity(bookUpdatedDto)).thenReturn(bookUpdated);
+        when(bookRepository.save(bookUpdated)).thenReturn(bookUpdated);
+        when(bookMapper.toDto(bookUpdated)).thenReturn(createBookDtoFromBook(bookUpdated));
+
+        bookService.updateBook(bookId, bookUpdatedDto, "\"2-0\", \"3-0\"");
+
+        verify(bookRepository).save(bookUpdated);
+    }
+
+    @Test
+    void update_StaleOrWeakIfMatch_ThrowsPreconditionFailedException() {
+        Long bookId = 1L;
+        CreateBookRequestDto bookUpdatedDto = new CreateBookRequestDto()
+                .setTitle("UPDATED TITLE Book 1");
+        Book book = createBook(bookId, "Book 1", "Author 1", "1234567890121", "10")
+                .setVersion(3L);
+
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> bookService.updateBook(bookId, bookUpdatedDto, "\"2-0\""));
+        assertThrows(PreconditionFailedException.class,
+                () -> bookService.updateBook(bookId, bookUpdatedDto, "W/\"3-0\""));
+        verify(bookRepository, never()).save(any());
     }
 
     @Test
@@ -169,6 +301,42 @@ public class BookServiceTest {
 
         verify(bookRepository).deleteById(1L);
         verify(bookRepository, times(1)).deleteById(1L);
+        verify(bookSuggestionIndex).remove(1L);
+    }
+
+    @Test
+    void createBook_InTransaction_IndexesOnlyAfterCommit() {
+        CreateBookRequestDto requestDto = new CreateBookRequestDto().setTitle("Book 1");
+        Book book = createBook(1L, "Book 1", "Author", "1234567890123", "10.10");
+        when(bookMapper.toEntity(requestDto)).thenReturn(book);
+        when(bookRepository.save(book)).thenReturn(book);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.save(requestDto);
+
+            verify(bookSuggestionIndex, never()).index(any(), any(), any());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookSuggestionIndex).index(1L, "Book 1", "Author");
+    }
+
+    @Test
+    void deleteById_TransactionRolledBack_KeepsBookInIndex() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.deleteById(1L);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(bookSuggestionIndex, never()).remove(any());
     }
 
     @Test
@@ -188,24 +356,124 @@ public class BookServiceTest {
         BookSearchParametersDto parameters = new BookSearchParametersDto(
                 new String[]{"Book 1"},
                 new String[]{"Author 1"},
-                new String[]{"1234567890121"}
+                new String[]{"1234567890121"},
+                null
         );
         Pageable pageable = PageRequest.of(0, 10);
         Specification<Book> specification = ((root, query, criteriaBuilder) ->
                 criteriaBuilder.conjunction());
         List<Book> bookList = List.of(book);
 
+        Page<Book> bookPage = new PageImpl<>(bookList, pageable, 21);
+
         when(bookSpecificationBuilder.build(parameters)).thenReturn(specification);
-        when(bookRepository.findAll(specification)).thenReturn(bookList);
-        when(bookMapper.toDto(book)).thenReturn(bookDto);
+        when(bookRepository.findAll(specification, pageable)).thenReturn(bookPage);
+        when(bookMapper.toDto(book, Set.of())).thenReturn(bookDto);
 
 
         Page<BookDto> expected = bookService.search(parameters, pageable);
 
-        assertEquals(1, expected.getTotalElements());
+        assertEquals(21, expected.getTotalElements());
+        assertEquals(3, expected.getTotalPages());
         assertEquals(book.getTitle(), expected.getContent().getFirst().getTitle());
     }
 
+    @Test
+    void searchWithoutCount_BookInDatabase_Success() {
+        Book book = createBook(1L, "Book 1", "Author 1", "1234567890121", "10");
+        BookDto bookDto = createBookDtoFromBook(book);
+        BookSearchParametersDto parameters = new BookSearchParametersDto(
+                null, new String[]{"Author 1"}, null, new String[]{"author"});
+        Pageable pageable = PageRequest.of(0, 1);
+        Specification<Book> specification = ((root, query, criteriaBuilder) ->
+                criteriaBuilder.conjunction());
+        Slice<Book> bookSlice = new SliceImpl<>(List.of(book), pageable, true);
+
+        when(bookSpecificationBuilder.build(parameters)).thenReturn(specification);
+        when(bookRepository.findBy(eq(specification), any())).thenReturn(bookSlice);
+        when(bookMapper.toDto(book, Set.of())).thenReturn(bookDto);
+
+        Slice<BookDto> actual = bookService.searchWithoutCount(parameters, pageable);
+
+        assertEquals(1, actual.getNumberOfElements());
+        assertTrue(actual.hasNext());
+        assertEquals(bookDto, actual.getContent().getFirst());
+    }
+
+    @Test
+    void searchByCursor_InvalidCursor_ThrowInvalidCursorException() {
+        BookSearchParametersDto parameters = new BookSearchParametersDto(null, null, null, null);
+
+        assertThrows(InvalidCursorException.class,
+                () -> bookService.searchByCursor(parameters, "not-a-cursor", 10));
+    }
+
+    @Test
+    void getVersion_BookUpdated_EtagChanges() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+        when(bookRepository.findVersionById(1L)).thenReturn(
+                Optional.of(new BookVersionDto(1L, updatedAt)),
+                Optional.of(new BookVersionDto(2L, updatedAt.plusSeconds(1))));
+        when(categoryRepository.findLastModified()).thenReturn(updatedAt.minusDays(1));
+
+        ResourceVersionDto before = bookService.getVersion(1L);
+        ResourceVersionDto after = bookService.getVersion(1L);
+
+        assertNotEquals(before.etag(), after.etag());
+        assertEquals(before.lastModified() + 1000, after.lastModified());
+    }
+
+    @Test
+    void getVersion_BookNotInDatabase_ThrowNotFoundException() {
+        when(bookRepository.findVersionById(-1L)).thenReturn(Optional.empty());
+
+        Exception exception = assertThrows(EntityNotFoundException.class,
+                () -> bookService.getVersion(-1L));
+
+        assertEquals("Book with id -1 not found", exception.getMessage());
+    }
+
+    @Test
+    void exportBooks_Ndjson_OneLinePerBookWithCategoryIds() throws IOException {
+        when(bookRepository.streamExportRows()).thenReturn(createExportRows());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookService.exportBooks(BookDataFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        BookDto first = objectMapper.readValue(lines[0], BookDto.class);
+        BookDto second = objectMapper.readValue(lines[1], BookDto.class);
+        assertEquals(Set.of(1L, 2L), first.getCategoryId());
+        assertEquals("Book, 2", second.getTitle());
+        assertEquals(Set.of(), second.getCategoryId());
+    }
+
+    @Test
+    void exportBooks_Csv_HeaderAndEscapedFields() throws IOException {
+        when(bookRepository.streamExportRows()).thenReturn(createExportRows());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        bookService.exportBooks(BookDataFormat.CSV, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,title,author,isbn,price,description,coverImage,categoryIds", lines[0]);
+        assertEquals("1,Book 1,Author 1,1234567890121,10.10,,,1;2", lines[1]);
+        assertEquals("2,\"Book, 2\",Author 2,1234567890122,20.20,\"Say \"\"hi\"\"\",,", lines[2]);
+    }
+
+    private Stream<BookExportRowDto> createExportRows() {
+        return Stream.of(
+                new BookExportRowDto(1L, "Book 1", "Author 1", "1234567890121",
+                        new BigDecimal("10.10"), null, null, 1L),
+                new BookExportRowDto(1L, "Book 1", "Author 1", "1234567890121",
+                        new BigDecimal("10.10"), null, null, 2L),
+                new BookExportRowDto(2L, "Book, 2", "Author 2", "1234567890122",
+                        new BigDecimal("20.20"), "Say \"hi\"", null, null));
+    }
+
     private Book createBook(Long id, String title, String author, String isbn, String price) {
         return new Book()
                 .setId(id)
@@ -2,6 +2,7 @@ package book.store.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -10,20 +11,24 @@ import static org.mockito.Mockito.when;
 import book.store.dto.book.BookDtoWithoutCategoryIds;
 import book.store.dto.category.CategoryDto;
 import book.store.dto.category.CreateCategoryRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.page.KeysetCursor;
 import book.store.exception.EntityNotFoundException;
-import book.store.mapper.BookMapper;
 import book.store.mapper.CategoryMapper;
 import book.store.model.Book;
 import book.store.model.Category;
 import book.store.repository.book.BookRepository;
 import book.store.repository.category.CategoryRepository;
 import book.store.service.impl.CategoryServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -45,7 +50,9 @@ public class CategoryServiceTest {
     @Mock
     private BookRepository bookRepository;
     @Mock
-    private BookMapper bookMapper;
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private Cache cache;
 
     @Test
     void getAll_CategoriesInDatabase_Success() {
@@ -152,37 +159,57 @@ public class CategoryServiceTest {
     @Test
     void deleteById_CategoryInDatabase_Success() {
         doNothing().when(categoryRepository).deleteById(1L);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(cache.unwrap(Cache.class)).thenReturn(cache);
 
         categoryService.deleteById(1L);
 
         verify(categoryRepository).deleteById(1L);
         verify(categoryRepository, times(1)).deleteById(1L);
+        verify(cache).evictCollectionData(Book.class.getName() + ".categories");
     }
 
     @Test
     void get_BooksByCategoryIdInDatabase_Success() {
         Long categoryId = 1L;
-        Book bookOne = createBook(1L, "Book 1", "Author 1", "1234567890121", "10.10");
-        Book bookTwo = createBook(2L, "Book 2", "Author 2", "1234567890122", "20.20");
-        Book bookThree = createBook(3L, "Book 3", "Author 1", "1234567890123", "20.20");
-        List<Book> bookList = List.of(bookOne, bookTwo, bookThree);
-
-        BookDtoWithoutCategoryIds bookDtoWithoutCategoryIdOne = createCategoryDtoFromCategory(bookOne);
-        BookDtoWithoutCategoryIds bookDtoWithoutCategoryIdTwo = createCategoryDtoFromCategory(bookTwo);
-        BookDtoWithoutCategoryIds bookDtoWithoutCategoryIdThree = createCategoryDtoFromCategory(bookThree);
-
-        when(bookRepository.findAllByCategoryId(categoryId)).thenReturn(bookList);
-        when(bookMapper.toDtoWithoutCategories(bookOne)).thenReturn(bookDtoWithoutCategoryIdOne);
-        when(bookMapper.toDtoWithoutCategories(bookTwo)).thenReturn(bookDtoWithoutCategoryIdTwo);
-        when(bookMapper.toDtoWithoutCategories(bookThree)).thenReturn(bookDtoWithoutCategoryIdThree);
-
-        List<BookDtoWithoutCategoryIds> actual =
-                categoryService.getBooksByCategoryId(categoryId);
-
-        assertEquals(3, actual.size());
-        assertEquals(bookDtoWithoutCategoryIdOne, actual.get(0));
-        assertEquals(bookDtoWithoutCategoryIdTwo, actual.get(1));
-        assertEquals(bookDtoWithoutCategoryIdThree, actual.get(2));
+        Pageable pageable = PageRequest.of(0, 10);
+        BookDtoWithoutCategoryIds bookDtoWithoutCategoryIdOne = createCategoryDtoFromCategory(
+                createBook(1L, "Book 1", "Author 1", "1234567890121", "10.10"));
+        BookDtoWithoutCategoryIds bookDtoWithoutCategoryIdTwo = createCategoryDtoFromCategory(
+                createBook(2L, "Book 2", "Author 2", "1234567890122", "20.20"));
+        List<BookDtoWithoutCategoryIds> bookDtoList =
+                List.of(bookDtoWithoutCategoryIdOne, bookDtoWithoutCategoryIdTwo);
+        Page<BookDtoWithoutCategoryIds> bookDtoPage = new PageImpl<>(bookDtoList, pageable, 12);
+
+        when(bookRepository.findAllByCategoryId(categoryId, pageable)).thenReturn(bookDtoPage);
+
+        Page<BookDtoWithoutCategoryIds> actual =
+                categoryService.getBooksByCategoryId(categoryId, pageable);
+
+        assertEquals(2, actual.getNumberOfElements());
+        assertEquals(12, actual.getTotalElements());
+        assertEquals(bookDtoWithoutCategoryIdOne, actual.getContent().get(0));
+        assertEquals(bookDtoWithoutCategoryIdTwo, actual.getContent().get(1));
+    }
+
+    @Test
+    void getBooksByCategoryIdAndCursor_MoreBooksThanSize_ReturnNextCursor() {
+        Long categoryId = 1L;
+        BookDtoWithoutCategoryIds bookDtoWithoutCategoryIdOne = createCategoryDtoFromCategory(
+                createBook(3L, "Book 3", "Author 1", "1234567890123", "20.20"));
+        BookDtoWithoutCategoryIds bookDtoWithoutCategoryIdTwo = createCategoryDtoFromCategory(
+                createBook(4L, "Book 4", "Author 2", "1234567890124", "20.20"));
+        String cursor = new KeysetCursor(2L).encode();
+
+        when(bookRepository.findAllByCategoryIdAfterId(categoryId, 2L, Limit.of(2)))
+                .thenReturn(List.of(bookDtoWithoutCategoryIdOne, bookDtoWithoutCategoryIdTwo));
+
+        CursorPageDto<BookDtoWithoutCategoryIds> actual =
+                categoryService.getBooksByCategoryIdAndCursor(categoryId, cursor, 1);
+
+        assertEquals(List.of(bookDtoWithoutCategoryIdOne), actual.content());
+        assertTrue(actual.hasNext());
+        assertEquals(3L, KeysetCursor.decode(actual.nextCursor()).lastId());
     }
 
     private Category createCategory(Long id, String name, String description) {
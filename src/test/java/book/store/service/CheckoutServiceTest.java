@@ -0,0 +1,195 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import book.store.dto.order.CheckoutStatusDto;
+import book.store.dto.order.CreateOrderRequestDto;
+import book.store.dto.order.OrderDto;
+import book.store.exception.CheckoutQueueFullException;
+import book.store.exception.EntityNotFoundException;
+import book.store.exception.QuantityTooLowException;
+import book.store.model.User;
+import book.store.service.impl.CheckoutServiceImpl;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class CheckoutServiceTest {
+
+    @Mock
+    private OrderService orderService;
+    @Mock
+    private ShoppingCartService shoppingCartService;
+
+    private CheckoutServiceImpl checkoutService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        checkoutService.stop();
+    }
+
+    @Test
+    void submit_SameIdempotencyKeyTwice_PlacesOrderOnce() throws InterruptedException {
+        startCheckoutService(10);
+        User user = createUser();
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.placeOrder(any(), any())).thenAnswer(invocation -> {
+            release.await();
+            return createOrderDto(5L);
+        });
+
+        CheckoutStatusDto first = checkoutService.submit("key-1", createOrderRequestDto(), user);
+        CheckoutStatusDto second = checkoutService.submit("key-1", createOrderRequestDto(), user);
+        release.countDown();
+
+        assertEquals(CheckoutStatusDto.Status.QUEUED, first.status());
+        assertEquals(first, second);
+        CheckoutStatusDto completed = awaitCompletion("key-1", user);
+        assertEquals(CheckoutStatusDto.Status.COMPLETED, completed.status());
+        assertEquals(5L, completed.orderId());
+        assertSame(completed, checkoutService.submit("key-1", createOrderRequestDto(), user));
+        verify(orderService, times(1)).placeOrder(any(), any());
+        InOrder flushBeforeOrder = inOrder(shoppingCartService, orderService);
+        flushBeforeOrder.verify(shoppingCartService).flushCart(user.getId());
+        flushBeforeOrder.verify(orderService).placeOrder(any(), any());
+    }
+
+    @Test
+    void submit_QueueFull_ThrowsExceptionAndForgetsKey() throws InterruptedException {
+        startCheckoutService(1);
+        User user = createUser();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.placeOrder(any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return createOrderDto(1L);
+        });
+
+        checkoutService.submit("key-1", createOrderRequestDto(), user);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        checkoutService.submit("key-2", createOrderRequestDto(), user);
+
+        assertThrows(CheckoutQueueFullException.class,
+                () -> checkoutService.submit("key-3", createOrderRequestDto(), user));
+        assertThrows(EntityNotFoundException.class,
+                () -> checkoutService.getStatus("key-3", user));
+        release.countDown();
+    }
+
+    @Test
+    void submit_OrderFails_ReportsFailedStatus() throws InterruptedException {
+        startCheckoutService(10);
+        User user = createUser();
+        when(orderService.placeOrder(any(), any())).thenThrow(
+                new EntityNotFoundException("User with id 1 doesn't have shopping cart"));
+
+        checkoutService.submit("key-1", createOrderRequestDto(), user);
+
+        CheckoutStatusDto actual = awaitCompletion("key-1", user);
+        assertEquals(CheckoutStatusDto.Status.FAILED, actual.status());
+        assertEquals("User with id 1 doesn't have shopping cart", actual.error());
+    }
+
+    @Test
+    void submit_OneQueuedOrderFails_PlacesOthersAndHidesUnexpectedError()
+            throws InterruptedException {
+        startCheckoutService(10);
+        User user = createUser();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.placeOrder(any(), any())).thenAnswer(invocation -> {
+            String address = invocation.<CreateOrderRequestDto>getArgument(0)
+                    .getShippingAddress();
+            switch (address) {
+                case "first" -> {
+                    started.countDown();
+                    release.await();
+                    return createOrderDto(1L);
+                }
+                case "broken" -> throw new IllegalStateException("Deadlock found on orders");
+                case "sold out" -> throw new QuantityTooLowException(
+                        "Not enough stock for books with ids [2]");
+                default -> {
+                    return createOrderDto(4L);
+                }
+            }
+        });
+
+        checkoutService.submit("key-1", createOrderRequestDto("first"), user);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        checkoutService.submit("key-2", createOrderRequestDto("broken"), user);
+        checkoutService.submit("key-3", createOrderRequestDto("sold out"), user);
+        checkoutService.submit("key-4", createOrderRequestDto("last"), user);
+        release.countDown();
+
+        CheckoutStatusDto broken = awaitCompletion("key-2", user);
+        assertEquals(CheckoutStatusDto.Status.FAILED, broken.status());
+        assertEquals("Order could not be placed", broken.error());
+        CheckoutStatusDto soldOut = awaitCompletion("key-3", user);
+        assertEquals("Not enough stock for books with ids [2]", soldOut.error());
+        CheckoutStatusDto last = awaitCompletion("key-4", user);
+        assertEquals(CheckoutStatusDto.Status.COMPLETED, last.status());
+        assertEquals(4L, last.orderId());
+        verify(orderService, times(4)).placeOrder(any(), any());
+    }
+
+    private void startCheckoutService(int queueCapacity) {
+        checkoutService = new CheckoutServiceImpl(orderService, shoppingCartService, queueCapacity, 1,
+                Duration.ofMinutes(1), 100);
+        checkoutService.start();
+    }
+
+    private CheckoutStatusDto awaitCompletion(String idempotencyKey, User user)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        CheckoutStatusDto status = checkoutService.getStatus(idempotencyKey, user);
+        while (status.status() == CheckoutStatusDto.Status.QUEUED
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = checkoutService.getStatus(idempotencyKey, user);
+        }
+        return status;
+    }
+
+    private CreateOrderRequestDto createOrderRequestDto() {
+        return createOrderRequestDto("ul.Java 123, Warsaw, Poland");
+    }
+
+    private CreateOrderRequestDto createOrderRequestDto(String shippingAddress) {
+        CreateOrderRequestDto createOrderRequestDto = new CreateOrderRequestDto();
+        createOrderRequestDto.setShippingAddress(shippingAddress);
+        return createOrderRequestDto;
+    }
+
+    private OrderDto createOrderDto(Long id) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setId(id);
+        return orderDto;
+    }
+
+    private User createUser() {
+        return new User()
+                .setId(1L)
+                .setEmail("mail@test.com")
+                .setPassword("password")
+                .setFirstName("John")
+                .setLastName("Doe")
+                .setDeleted(false);
+    }
+}
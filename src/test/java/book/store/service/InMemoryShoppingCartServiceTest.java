@@ -0,0 +1,211 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import book.store.dto.cartitem.CartItemDto;
+import book.store.dto.shoppingcart.CreateCartItemsRequestDto;
+import book.store.dto.shoppingcart.CreateShoppingCartRequestDto;
+import book.store.dto.shoppingcart.ShoppingCartDto;
+import book.store.dto.shoppingcart.UpdateCartItemRequestDto;
+import book.store.exception.EntityNotFoundException;
+import book.store.model.Book;
+import book.store.model.CartItem;
+import book.store.model.ShoppingCart;
+import book.store.model.User;
+import book.store.repository.book.BookRepository;
+import book.store.repository.cartitem.CartItemRepository;
+import book.store.repository.shoppingcart.ShoppingCartJdbcRepository;
+import book.store.repository.shoppingcart.ShoppingCartRepository;
+import book.store.service.impl.InMemoryShoppingCartServiceImpl;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class InMemoryShoppingCartServiceTest {
+
+    @Mock
+    private ShoppingCartRepository shoppingCartRepository;
+    @Mock
+    private ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CartItemRepository cartItemRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryShoppingCartServiceImpl shoppingCartService;
+
+    @BeforeEach
+    void setUp() {
+        shoppingCartService = new InMemoryShoppingCartServiceImpl(shoppingCartRepository,
+                shoppingCartJdbcRepository, bookRepository, cartItemRepository,
+                transactionManager, Duration.ofMinutes(30));
+    }
+
+    @Test
+    void getShoppingCart_CalledTwice_LoadsCartOnce() {
+        User user = createUser();
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(createShoppingCart(user)));
+
+        shoppingCartService.getShoppingCart(user.getId());
+        ShoppingCartDto actual = shoppingCartService.getShoppingCart(user.getId());
+
+        verify(shoppingCartRepository, times(1)).findWithItemsByUserId(user.getId());
+        assertEquals(1L, actual.getId());
+        assertEquals(1, actual.getCartItems().size());
+        assertEquals("Book 1", actual.getCartItems().iterator().next().getBookTitle());
+    }
+
+    @Test
+    void getShoppingCart_NoCartInDatabase_ThrowsException() {
+        when(shoppingCartRepository.findWithItemsByUserId(1L)).thenReturn(Optional.empty());
+
+        Exception exception = assertThrows(EntityNotFoundException.class,
+                () -> shoppingCartService.getShoppingCart(1L));
+
+        assertEquals("User with id 1 doesn't have shopping cart", exception.getMessage());
+    }
+
+    @Test
+    void addItemToCart_ExistingItem_WritesSummedQuantityOnFlush() {
+        User user = createUser();
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(createShoppingCart(user)));
+        CreateShoppingCartRequestDto requestDto = new CreateShoppingCartRequestDto()
+                .setBookId(1L)
+                .setQuantity(2);
+
+        shoppingCartService.addItemToCart(user, requestDto);
+        CartItemDto actual = shoppingCartService.addItemToCart(user, requestDto);
+
+        verify(shoppingCartJdbcRepository, never()).updateQuantities(anyMap());
+        shoppingCartService.flushDirtyCarts();
+        shoppingCartService.flushDirtyCarts();
+        verify(shoppingCartJdbcRepository, times(1)).updateQuantities(Map.of(10L, 5));
+        verify(shoppingCartJdbcRepository, never()).addQuantities(any(), anyMap());
+        assertEquals(5, actual.getQuantity());
+    }
+
+    @Test
+    void addItemToCart_NewBook_InsertsSynchronously() {
+        User user = createUser();
+        ShoppingCart shoppingCart = createShoppingCart(user);
+        Book book = createBook(2L);
+        CartItem cartItem = new CartItem().setId(20L).setShoppingCart(shoppingCart).setBook(book)
+                .setQuantity(3);
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(shoppingCart));
+        when(bookRepository.findAllById(Set.of(2L))).thenReturn(List.of(book));
+        when(cartItemRepository.findAllByShoppingCartIdAndBookIdIn(1L, Set.of(2L)))
+                .thenReturn(List.of(cartItem));
+
+        CartItemDto actual = shoppingCartService.addItemToCart(user,
+                new CreateShoppingCartRequestDto().setBookId(2L).setQuantity(3));
+
+        verify(shoppingCartJdbcRepository).addQuantities(1L, Map.of(2L, 3));
+        assertEquals(20L, actual.getId());
+        assertEquals(2, shoppingCartService.getShoppingCart(user.getId()).getCartItems().size());
+    }
+
+    @Test
+    void deleteBookByIdFromCart_LoadedItem_DeletesOnFlush() {
+        User user = createUser();
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(createShoppingCart(user)));
+        shoppingCartService.getShoppingCart(user.getId());
+
+        shoppingCartService.deleteBookByIdFromCart(10L);
+
+        verify(cartItemRepository, never()).findUserIdById(any());
+        assertEquals(0, shoppingCartService.getShoppingCart(user.getId()).getCartItems().size());
+        shoppingCartService.flushDirtyCarts();
+        verify(shoppingCartJdbcRepository).deleteItems(Set.of(10L));
+    }
+
+    @Test
+    void addItemsToCart_DeletedItemAndUnknownBook_KeepsPendingDelete() {
+        User user = createUser();
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(createShoppingCart(user)));
+        when(bookRepository.findAllById(Set.of(99L))).thenReturn(List.of());
+        shoppingCartService.getShoppingCart(user.getId());
+        shoppingCartService.deleteBookByIdFromCart(10L);
+        CreateCartItemsRequestDto requestDto = new CreateCartItemsRequestDto().setItems(List.of(
+                new CreateShoppingCartRequestDto().setBookId(1L).setQuantity(2),
+                new CreateShoppingCartRequestDto().setBookId(99L).setQuantity(1)));
+
+        assertThrows(EntityNotFoundException.class,
+                () -> shoppingCartService.addItemsToCart(user, requestDto));
+
+        assertEquals(0, shoppingCartService.getShoppingCart(user.getId()).getCartItems().size());
+        shoppingCartService.flushDirtyCarts();
+        verify(shoppingCartJdbcRepository).deleteItems(Set.of(10L));
+        verify(shoppingCartJdbcRepository, never()).updateQuantities(anyMap());
+    }
+
+    @Test
+    void flushCart_PendingUpdate_WritesAndReloadsOnNextRead() {
+        User user = createUser();
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(createShoppingCart(user)));
+        when(cartItemRepository.findUserIdById(10L)).thenReturn(Optional.of(user.getId()));
+
+        shoppingCartService.updateItemQuantityById(10L,
+                new UpdateCartItemRequestDto().setQuantity(7));
+        shoppingCartService.flushCart(user.getId());
+        shoppingCartService.getShoppingCart(user.getId());
+
+        verify(shoppingCartJdbcRepository).updateQuantities(Map.of(10L, 7));
+        verify(shoppingCartRepository, times(2)).findWithItemsByUserId(user.getId());
+    }
+
+    private User createUser() {
+        return new User()
+                .setId(1L)
+                .setEmail("mail@test.com")
+                .setPassword("password")
+                .setFirstName("John")
+                .setLastName("Doe")
+                .setDeleted(false);
+    }
+
+    private Book createBook(Long id) {
+        return new Book()
+                .setId(id)
+                .setTitle("Book " + id)
+                .setAuthor("Author")
+                .setIsbn("1234567890123")
+                .setPrice(new BigDecimal("10.10"));
+    }
+
+    private ShoppingCart createShoppingCart(User user) {
+        ShoppingCart shoppingCart = new ShoppingCart()
+                .setId(1L)
+                .setUser(user);
+        shoppingCart.getCartItems().add(new CartItem()
+                .setId(10L)
+                .setShoppingCart(shoppingCart)
+                .setBook(createBook(1L))
+                .setQuantity(1));
+        return shoppingCart;
+    }
+}
@@ -0,0 +1,60 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import book.store.dto.order.CreateOrderRequestDto;
+import book.store.dto.order.OrderDto;
+import book.store.model.User;
+import book.store.repository.user.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest
+public class OrderServiceStatementCountTest {
+
+    private static final Long ONE_ITEM_CART_USER_ID = 1L;
+    private static final Long FOUR_ITEM_CART_USER_ID = 2L;
+    private static final Long WARM_UP_USER_ID = 3L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Sql(scripts = "classpath:database/orders/add-checkout-shopping-carts.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/orders/delete-placed-orders.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void placeOrder_CartsOfDifferentSize_SameStatementCount() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        User oneItemCartUser = userRepository.findById(ONE_ITEM_CART_USER_ID).orElseThrow();
+        User fourItemCartUser = userRepository.findById(FOUR_ITEM_CART_USER_ID).orElseThrow();
+        CreateOrderRequestDto createOrderRequestDto = new CreateOrderRequestDto();
+        createOrderRequestDto.setShippingAddress("ul.Java 123, Warsaw, Poland");
+
+        orderService.placeOrder(createOrderRequestDto,
+                userRepository.findById(WARM_UP_USER_ID).orElseThrow());
+
+        statistics.clear();
+        OrderDto oneItemOrder = orderService.placeOrder(createOrderRequestDto, oneItemCartUser);
+        long oneItemStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        OrderDto fourItemOrder = orderService.placeOrder(createOrderRequestDto, fourItemCartUser);
+        long fourItemStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(1, oneItemOrder.getOrderItems().size());
+        assertEquals(4, fourItemOrder.getOrderItems().size());
+        assertEquals(oneItemStatements, fourItemStatements);
+    }
+}
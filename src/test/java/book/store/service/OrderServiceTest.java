@@ -0,0 +1,379 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import book.store.dto.order.BulkUpdateOrderStatusRequestDto;
+import book.store.dto.order.BulkUpdateOrderStatusResultDto;
+import book.store.dto.order.CreateOrderRequestDto;
+import book.store.dto.order.OrderDto;
+import book.store.dto.order.OrderRowDto;
+import book.store.dto.order.UpdateOrderRequestDto;
+import book.store.dto.page.CursorPageDto;
+import book.store.dto.page.KeysetCursor;
+import book.store.exception.OrderStatusTransitionException;
+import book.store.exception.QuantityTooLowException;
+import book.store.mapper.OrderMapper;
+import book.store.model.Book;
+import book.store.model.CartItem;
+import book.store.model.Order;
+import book.store.model.OrderItem;
+import book.store.model.ShoppingCart;
+import book.store.model.User;
+import book.store.repository.order.OrderRepository;
+import book.store.repository.orderitem.OrderItemRepository;
+import book.store.repository.shoppingcart.ShoppingCartRepository;
+import book.store.service.impl.OrderServiceImpl;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class OrderServiceTest {
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Mock
+    private ShoppingCartRepository shoppingCartRepository;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @Mock
+    private OrderMapper orderMapper;
+    @Mock
+    private ShoppingCartService shoppingCartService;
+    @Mock
+    private StockService stockService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void placeOrder_SingleItemCart_SavesOrderItemsInOneBatch() {
+        assertOneBatchedSave(1);
+    }
+
+    @Test
+    void placeOrder_FiftyItemCart_SavesOrderItemsInOneBatch() {
+        assertOneBatchedSave(50);
+    }
+
+    @Test
+    void placeOrder_ExistingPendingOrder_AddsCartTotalToOrderTotal() {
+        User user = createUser();
+        ShoppingCart shoppingCart = createShoppingCart(user, 2);
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(Order.Status.PENDING);
+        order.setTotal(new BigDecimal("5.00"));
+
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(shoppingCart));
+        when(orderRepository.findFirstByUserIdAndStatusOrderByIdDesc(user.getId(),
+                Order.Status.PENDING)).thenReturn(Optional.of(order));
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+
+        orderService.placeOrder(createOrderRequestDto(), user);
+
+        assertEquals(new BigDecimal("35.30"), order.getTotal());
+        assertEquals(2, order.getOrderItems().size());
+        verify(stockService).reserve(Map.of(1L, 1, 2L, 2));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void placeOrder_SeveralOrdersOnePending_AddsItemsToPendingOrder() {
+        User user = createUser();
+        ShoppingCart shoppingCart = createShoppingCart(user, 1);
+        Order pendingOrder = new Order();
+        pendingOrder.setId(2L);
+        pendingOrder.setUser(user);
+        pendingOrder.setStatus(Order.Status.PENDING);
+        pendingOrder.setTotal(BigDecimal.ZERO);
+
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(shoppingCart));
+        when(orderRepository.findFirstByUserIdAndStatusOrderByIdDesc(user.getId(),
+                Order.Status.PENDING)).thenReturn(Optional.of(pendingOrder));
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+
+        orderService.placeOrder(createOrderRequestDto(), user);
+
+        ArgumentCaptor<List<OrderItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderItemRepository).saveAll(captor.capture());
+        assertTrue(captor.getValue().stream()
+                .allMatch(orderItem -> orderItem.getOrder() == pendingOrder));
+        verify(orderRepository, never()).save(any());
+        verify(shoppingCartRepository).delete(shoppingCart);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void placeOrder_HotBookInCart_TagsOrderItemWithStockAllocation() {
+        User user = createUser();
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(createShoppingCart(user, 2)));
+        when(stockService.reserve(Map.of(1L, 1, 2L, 2))).thenReturn(Map.of(1L, 7L));
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+
+        orderService.placeOrder(createOrderRequestDto(), user);
+
+        ArgumentCaptor<List<OrderItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderItemRepository).saveAll(captor.capture());
+        Map<Long, Long> allocationIdsByBookId = new HashMap<>();
+        captor.getValue().forEach(orderItem -> allocationIdsByBookId.put(
+                orderItem.getBook().getId(), orderItem.getStockAllocationId()));
+        assertEquals(7L, allocationIdsByBookId.get(1L));
+        assertNull(allocationIdsByBookId.get(2L));
+    }
+
+    @Test
+    void placeOrder_NotEnoughStock_ThrowsExceptionBeforeCreatingOrder() {
+        User user = createUser();
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(createShoppingCart(user, 2)));
+        doThrow(new QuantityTooLowException("Not enough stock for books with ids [2]"))
+                .when(stockService).reserve(Map.of(1L, 1, 2L, 2));
+
+        assertThrows(QuantityTooLowException.class,
+                () -> orderService.placeOrder(createOrderRequestDto(), user));
+
+        verify(orderRepository, never()).save(any());
+        verify(orderItemRepository, never()).saveAll(anyList());
+        verify(shoppingCartRepository, never()).delete(any());
+    }
+
+    @Test
+    void getAllOrders_PageOfIds_LoadsOnlyThoseOrdersInPageOrder() {
+        User user = createUser();
+        Pageable pageable = PageRequest.of(0, 2);
+        when(orderRepository.findIdsByUserId(user.getId(), pageable))
+                .thenReturn(new PageImpl<>(List.of(7L, 5L), pageable, 3));
+        when(orderRepository.findRowsByIdIn(List.of(7L, 5L))).thenReturn(List.of(
+                createOrderRow(5L, 1L, 1L),
+                createOrderRow(7L, 2L, 3L),
+                createOrderRow(5L, 3L, 2L)));
+
+        Page<OrderDto> actual = orderService.getAllOrders(user, pageable);
+
+        assertEquals(3, actual.getTotalElements());
+        assertEquals(List.of(7L, 5L), actual.getContent().stream().map(OrderDto::getId).toList());
+        assertEquals(2, actual.getContent().get(1).getOrderItems().size());
+    }
+
+    @Test
+    void getAllOrdersByCursor_MoreOrdersThanSize_ReturnsNextCursor() {
+        User user = createUser();
+        when(orderRepository.findIdsByUserIdBeforeId(user.getId(), 9L, Limit.of(2)))
+                .thenReturn(List.of(8L, 4L));
+        when(orderRepository.findRowsByIdIn(List.of(8L)))
+                .thenReturn(List.of(new OrderRowDto(8L, user.getId(), LocalDateTime.now(),
+                        BigDecimal.TEN, Order.Status.PENDING, null, null, null)));
+
+        CursorPageDto<OrderDto> actual = orderService.getAllOrdersByCursor(user,
+                new KeysetCursor(9L).encode(), 1);
+
+        assertTrue(actual.hasNext());
+        assertEquals(8L, KeysetCursor.decode(actual.nextCursor()).lastId());
+        assertEquals(1, actual.content().size());
+        assertTrue(actual.content().get(0).getOrderItems().isEmpty());
+    }
+
+    @Test
+    void getAllOrdersByCursor_LastPage_HasNoNextCursor() {
+        User user = createUser();
+        when(orderRepository.findIdsByUserIdBeforeId(user.getId(), Long.MAX_VALUE,
+                Limit.of(21))).thenReturn(List.of());
+
+        CursorPageDto<OrderDto> actual = orderService.getAllOrdersByCursor(user, null, 20);
+
+        assertFalse(actual.hasNext());
+        assertNull(actual.nextCursor());
+        assertTrue(actual.content().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateOrderStatuses_ManyIds_UpdatesInChunksOnlyFromPreviousStatuses() {
+        mockTransactions();
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(orderRepository.updateStatusByIdIn(anyList(), eq(Order.Status.COMPLETED),
+                eq(List.of(Order.Status.PENDING)))).thenReturn(1000, 1000, 400);
+        BulkUpdateOrderStatusRequestDto requestDto = new BulkUpdateOrderStatusRequestDto();
+        requestDto.setStatus(Order.Status.COMPLETED);
+        requestDto.setIds(ids);
+
+        BulkUpdateOrderStatusResultDto actual = orderService.updateOrderStatuses(requestDto);
+
+        ArgumentCaptor<List<Long>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository, times(3)).updateStatusByIdIn(captor.capture(),
+                eq(Order.Status.COMPLETED), eq(List.of(Order.Status.PENDING)));
+        assertEquals(List.of(1000, 1000, 500),
+                captor.getAllValues().stream().map(List::size).toList());
+        assertEquals(new BulkUpdateOrderStatusResultDto(2500, 2400), actual);
+    }
+
+    @Test
+    void updateOrderStatuses_Filter_WalksMatchingIdsByKeyset() {
+        mockTransactions();
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Long> firstChunk = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(orderRepository.findIdsByFilterAfterId(Order.Status.COMPLETED, null, to, 0L,
+                Limit.of(1000))).thenReturn(firstChunk);
+        when(orderRepository.findIdsByFilterAfterId(Order.Status.COMPLETED, null, to, 1000L,
+                Limit.of(1000))).thenReturn(List.of(1001L, 1002L));
+        when(orderRepository.updateStatusByIdIn(anyList(), eq(Order.Status.DELIVERED),
+                anyList())).thenReturn(1000, 2);
+        BulkUpdateOrderStatusRequestDto requestDto = new BulkUpdateOrderStatusRequestDto();
+        requestDto.setStatus(Order.Status.DELIVERED);
+        requestDto.setCurrentStatus(Order.Status.COMPLETED);
+        requestDto.setTo(to);
+
+        BulkUpdateOrderStatusResultDto actual = orderService.updateOrderStatuses(requestDto);
+
+        verify(orderRepository).updateStatusByIdIn(eq(List.of(1001L, 1002L)),
+                eq(Order.Status.DELIVERED), anyList());
+        assertEquals(new BulkUpdateOrderStatusResultDto(1002, 1002), actual);
+    }
+
+    @Test
+    void updateOrderStatuses_BackToPending_UpdatesNothing() {
+        BulkUpdateOrderStatusRequestDto requestDto = new BulkUpdateOrderStatusRequestDto();
+        requestDto.setStatus(Order.Status.PENDING);
+        requestDto.setIds(List.of(1L, 2L));
+
+        BulkUpdateOrderStatusResultDto actual = orderService.updateOrderStatuses(requestDto);
+
+        verify(orderRepository, never()).updateStatusByIdIn(anyList(), any(), anyList());
+        assertEquals(new BulkUpdateOrderStatusResultDto(2, 0), actual);
+    }
+
+    @Test
+    void updateOrderStatus_PendingToCompleted_SavesNewStatus() {
+        Order order = new Order();
+        order.setStatus(Order.Status.PENDING);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        UpdateOrderRequestDto requestDto = new UpdateOrderRequestDto();
+        requestDto.setStatus(Order.Status.COMPLETED);
+
+        orderService.updateOrderStatus(1L, requestDto);
+
+        assertEquals(Order.Status.COMPLETED, order.getStatus());
+        verify(orderRepository).save(order);
+    }
+
+    @Test
+    void updateOrderStatus_DeliveredBackToPending_ThrowsException() {
+        Order order = new Order();
+        order.setStatus(Order.Status.DELIVERED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        UpdateOrderRequestDto requestDto = new UpdateOrderRequestDto();
+        requestDto.setStatus(Order.Status.PENDING);
+
+        Exception exception = assertThrows(OrderStatusTransitionException.class,
+                () -> orderService.updateOrderStatus(1L, requestDto));
+
+        assertEquals("Order with id 1 can't move from DELIVERED to PENDING",
+                exception.getMessage());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    private void mockTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private OrderRowDto createOrderRow(Long orderId, Long itemId, Long bookId) {
+        return new OrderRowDto(orderId, 1L, LocalDateTime.now(), BigDecimal.TEN,
+                Order.Status.PENDING, itemId, bookId, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void assertOneBatchedSave(int cartSize) {
+        User user = createUser();
+        ShoppingCart shoppingCart = createShoppingCart(user, cartSize);
+        OrderDto expected = new OrderDto();
+
+        when(shoppingCartRepository.findWithItemsByUserId(user.getId()))
+                .thenReturn(Optional.of(shoppingCart));
+        when(orderRepository.findFirstByUserIdAndStatusOrderByIdDesc(user.getId(),
+                Order.Status.PENDING)).thenReturn(Optional.empty());
+        when(orderItemRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+        when(orderMapper.toDto(any(Order.class))).thenReturn(expected);
+
+        OrderDto actual = orderService.placeOrder(createOrderRequestDto(), user);
+
+        ArgumentCaptor<List<OrderItem>> captor = ArgumentCaptor.forClass(List.class);
+        verify(shoppingCartService).discardCartAfterCommit(user.getId());
+        verify(orderItemRepository, times(1)).saveAll(captor.capture());
+        verify(orderItemRepository, never()).save(any());
+        verify(orderRepository, times(1)).save(any(Order.class));
+        assertEquals(cartSize, captor.getValue().size());
+        assertEquals(expected, actual);
+    }
+
+    private CreateOrderRequestDto createOrderRequestDto() {
+        CreateOrderRequestDto createOrderRequestDto = new CreateOrderRequestDto();
+        createOrderRequestDto.setShippingAddress("ul.Java 123, Warsaw, Poland");
+        return createOrderRequestDto;
+    }
+
+    private User createUser() {
+        return new User()
+                .setId(1L)
+                .setEmail("mail@test.com")
+                .setPassword("password")
+                .setFirstName("John")
+                .setLastName("Doe")
+                .setDeleted(false);
+    }
+
+    private ShoppingCart createShoppingCart(User user, int cartSize) {
+        ShoppingCart shoppingCart = new ShoppingCart()
+                .setId(1L)
+                .setUser(user);
+        for (long i = 1; i <= cartSize; i++) {
+            Book book = new Book()
+                    .setId(i)
+                    .setTitle("Book " + i)
+                    .setAuthor("Author")
+                    .setIsbn("123456789" + i)
+                    .setPrice(new BigDecimal("10.10"));
+            shoppingCart.getCartItems().add(new CartItem()
+                    .setId(i)
+                    .setShoppingCart(shoppingCart)
+                    .setBook(book)
+                    .setQuantity((int) i));
+        }
+        return shoppingCart;
+    }
+}
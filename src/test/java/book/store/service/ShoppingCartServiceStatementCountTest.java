@@ -0,0 +1,47 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import book.store.dto.shoppingcart.ShoppingCartDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest
+public class ShoppingCartServiceStatementCountTest {
+
+    private static final Long ONE_ITEM_CART_USER_ID = 1L;
+    private static final Long FOUR_ITEM_CART_USER_ID = 2L;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Sql(scripts = "classpath:database/orders/add-checkout-shopping-carts.sql",
+            executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @Sql(scripts = "classpath:database/orders/delete-placed-orders.sql",
+            executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+    void getShoppingCart_CartsOfDifferentSize_OneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        ShoppingCartDto oneItemCart = shoppingCartService.getShoppingCart(ONE_ITEM_CART_USER_ID);
+        long oneItemStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        ShoppingCartDto fourItemCart = shoppingCartService.getShoppingCart(FOUR_ITEM_CART_USER_ID);
+        long fourItemStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(1, oneItemCart.getCartItems().size());
+        assertEquals(4, fourItemCart.getCartItems().size());
+        assertEquals(1, oneItemStatements);
+        assertEquals(1, fourItemStatements);
+    }
+}
@@ -2,26 +2,34 @@ package book.store.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import book.store.dto.cartitem.CartItemDto;
+import book.store.dto.cartitem.CartItemDtoWithTitle;
+import book.store.dto.shoppingcart.CreateCartItemsRequestDto;
 import book.store.dto.shoppingcart.CreateShoppingCartRequestDto;
 import book.store.dto.shoppingcart.ShoppingCartDto;
+import book.store.dto.shoppingcart.ShoppingCartRowDto;
 import book.store.dto.shoppingcart.UpdateCartItemRequestDto;
 import book.store.exception.EntityNotFoundException;
 import book.store.mapper.CartItemMapper;
-import book.store.mapper.ShoppingCartMapper;
 import book.store.model.Book;
 import book.store.model.CartItem;
 import book.store.model.ShoppingCart;
 import book.store.model.User;
 import book.store.repository.book.BookRepository;
 import book.store.repository.cartitem.CartItemRepository;
+import book.store.repository.shoppingcart.ShoppingCartJdbcRepository;
 import book.store.repository.shoppingcart.ShoppingCartRepository;
 import book.store.service.impl.ShoppingCartServiceImpl;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -37,34 +45,47 @@ public class ShoppingCartServiceTest {
     @Mock
     private ShoppingCartRepository shoppingCartRepository;
     @Mock
+    private ShoppingCartJdbcRepository shoppingCartJdbcRepository;
+    @Mock
     private BookRepository bookRepository;
     @Mock
     private CartItemRepository cartItemRepository;
     @Mock
-    private ShoppingCartMapper shoppingCartMapper;
-    @Mock
     private CartItemMapper cartItemMapper;
 
     @Test
     void getOne_ShoppingCartInDatabase_Success() {
         User user = createUser();
-        ShoppingCart shoppingCart = createShoppingCart(user);
-        ShoppingCartDto expected = new ShoppingCartDto().setId(shoppingCart.getId())
-                .setUserId(user.getId());
+        when(shoppingCartRepository.findRowsByUserId(user.getId())).thenReturn(List.of(
+                new ShoppingCartRowDto(1L, user.getId(), 1L, 2L, "Book 2", 3),
+                new ShoppingCartRowDto(1L, user.getId(), 2L, 3L, "Book 3", 1)));
 
-        when(shoppingCartRepository.findByUserId(user.getId())).thenReturn(Optional.of(shoppingCart));
-        when(shoppingCartMapper.toDto(shoppingCart)).thenReturn(expected);
+        ShoppingCartDto actual = shoppingCartService.getShoppingCart(user.getId());
+
+        assertEquals(1L, actual.getId());
+        assertEquals(user.getId(), actual.getUserId());
+        assertEquals(List.of("Book 2", "Book 3"), actual.getCartItems().stream()
+                .map(CartItemDtoWithTitle::getBookTitle)
+                .toList());
+    }
+
+    @Test
+    void getShoppingCart_EmptyCart_ReturnsNoItems() {
+        User user = createUser();
+        when(shoppingCartRepository.findRowsByUserId(user.getId())).thenReturn(List.of(
+                new ShoppingCartRowDto(1L, user.getId(), null, null, null, null)));
 
         ShoppingCartDto actual = shoppingCartService.getShoppingCart(user.getId());
 
-        assertEquals(expected, actual);
+        assertEquals(1L, actual.getId());
+        assertTrue(actual.getCartItems().isEmpty());
     }
 
     @Test
     void getShoppingCart_ShoppingCartNotInDatabase_ThrowsException() {
         Long userId = -1L;
 
-        when(shoppingCartRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(shoppingCartRepository.findRowsByUserId(userId)).thenReturn(List.of());
 
         Exception exception = assertThrows(EntityNotFoundException.class,
                 () -> shoppingCartService.getShoppingCart(userId));
@@ -73,7 +94,7 @@ public class ShoppingCartServiceTest {
     }
 
     @Test
-    void addItemToCart_NewCartItemToNotExistingShoppingCartInDatabase_Success() {
+    void addItemToCart_NewCartItem_UpsertsQuantity() {
         User user = createUser();
         CreateShoppingCartRequestDto shoppingCartRequestDto = new CreateShoppingCartRequestDto()
                 .setBookId(2L)
@@ -86,95 +107,79 @@ public class ShoppingCartServiceTest {
         CartItemDto cartItemDto = new CartItemDto().setId(cartItem.getId())
                 .setBookId(cartItem.getBook().getId()).setQuantity(cartItem.getQuantity());
 
-        when(bookRepository.findById(shoppingCartRequestDto.getBookId())).thenReturn(Optional.of(book));
-        when(shoppingCartRepository.findByUserId(user.getId())).thenReturn(Optional.empty());
-        when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(shoppingCart);
+        when(bookRepository.existsById(book.getId())).thenReturn(true);
+        when(shoppingCartJdbcRepository.findOrCreateCartId(user.getId()))
+                .thenReturn(shoppingCart.getId());
         when(cartItemRepository.findByShoppingCartIdAndBookId(shoppingCart.getId(), book.getId()))
-                .thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
-        when(cartItemMapper.toDto(any(CartItem.class))).thenReturn(cartItemDto);
+                .thenReturn(Optional.of(cartItem));
+        when(cartItemMapper.toDto(cartItem)).thenReturn(cartItemDto);
 
         CartItemDto actual = shoppingCartService.addItemToCart(user, shoppingCartRequestDto);
 
-        assertNotNull(actual.getId());
-        assertEquals(shoppingCartRequestDto.getBookId(), actual.getBookId());
-        assertEquals(shoppingCartRequestDto.getQuantity(), actual.getQuantity());
+        verify(shoppingCartJdbcRepository).addQuantities(shoppingCart.getId(),
+                Map.of(book.getId(), shoppingCartRequestDto.getQuantity()));
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+        assertEquals(cartItemDto, actual);
     }
 
     @Test
-    void addItemToCart_NewCartItemToExistingShoppingCartInDatabase_Success() {
+    void addItemToCart_BookNotFound_ThrowsException() {
         User user = createUser();
         CreateShoppingCartRequestDto shoppingCartRequestDto = new CreateShoppingCartRequestDto()
-                .setBookId(2L)
-                .setQuantity(5);
-        Book book = createBook()
-                .setId(shoppingCartRequestDto.getBookId());
-        ShoppingCart shoppingCart = createShoppingCart(user);
-        CartItem cartItem = new CartItem().setId(1L).setShoppingCart(shoppingCart).setBook(book)
-                .setQuantity(shoppingCartRequestDto.getQuantity());
-        CartItemDto cartItemDto = new CartItemDto().setId(cartItem.getId())
-                .setBookId(cartItem.getBook().getId()).setQuantity(cartItem.getQuantity());
-
-        when(bookRepository.findById(shoppingCartRequestDto.getBookId())).thenReturn(Optional.of(book));
-        when(shoppingCartRepository.findByUserId(user.getId())).thenReturn(Optional.of(shoppingCart));
-        when(cartItemRepository.findByShoppingCartIdAndBookId(shoppingCart.getId(), book.getId()))
-                .thenReturn(Optional.empty());
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
-        when(cartItemMapper.toDto(any(CartItem.class))).thenReturn(cartItemDto);
+                .setBookId(-2L)
+                .setQuantity(1);
 
-        CartItemDto actual = shoppingCartService.addItemToCart(user, shoppingCartRequestDto);
+        when(bookRepository.existsById(shoppingCartRequestDto.getBookId())).thenReturn(false);
 
-        assertEquals(shoppingCartRequestDto.getBookId(), actual.getBookId());
-        assertEquals(shoppingCartRequestDto.getQuantity(), actual.getQuantity());
-        assertEquals(cartItemDto.getId(), actual.getId());
+        Exception exception = assertThrows(EntityNotFoundException.class,
+                () -> shoppingCartService.addItemToCart(user, shoppingCartRequestDto));
+        assertEquals("Item with id " + shoppingCartRequestDto.getBookId()
+                + " not found", exception.getMessage());
+        verify(shoppingCartJdbcRepository, never()).findOrCreateCartId(any());
     }
 
     @Test
-    void addItemToCart_existingCartAndItem_updatesQuantity() {
+    void addItemsToCart_DuplicateBookIds_UpsertsSummedQuantitiesInOneBatch() {
         User user = createUser();
-        CreateShoppingCartRequestDto shoppingCartRequestDto = new CreateShoppingCartRequestDto()
-                .setBookId(2L)
-                .setQuantity(15);
-        Book book = createBook()
-                .setId(shoppingCartRequestDto.getBookId());
         ShoppingCart shoppingCart = createShoppingCart(user);
-        CartItem existingCartItem = new CartItem().setId(1L).setShoppingCart(shoppingCart).setBook(book)
-                .setQuantity(5);
-        CartItem updatedCartItem = new CartItem().setId(existingCartItem.getId())
-                .setShoppingCart(existingCartItem.getShoppingCart())
-                .setBook(existingCartItem.getBook())
-                .setQuantity(shoppingCartRequestDto.getQuantity() + existingCartItem.getQuantity());
-        CartItemDto cartItemDto = new CartItemDto().setId(updatedCartItem.getId())
-                .setBookId(updatedCartItem.getBook().getId())
-                .setQuantity(updatedCartItem.getQuantity());
-
-        when(bookRepository.findById(shoppingCartRequestDto.getBookId())).thenReturn(Optional.of(book));
-        when(shoppingCartRepository.findByUserId(user.getId())).thenReturn(Optional.of(shoppingCart));
-        when(cartItemRepository.findByShoppingCartIdAndBookId(shoppingCart.getId(), book.getId()))
-                .thenReturn(Optional.of(existingCartItem));
-        when(cartItemRepository.save(any(CartItem.class))).thenReturn(updatedCartItem);
-        when(cartItemMapper.toDto(any(CartItem.class))).thenReturn(cartItemDto);
-
-        CartItemDto actual = shoppingCartService.addItemToCart(user, shoppingCartRequestDto);
-
-        assertNotNull(actual.getId());
-        assertEquals(book.getId(), actual.getBookId());
-        assertEquals(updatedCartItem.getQuantity(), actual.getQuantity());
+        Book firstBook = createBook().setId(1L);
+        Book secondBook = createBook().setId(2L);
+        CartItem firstItem = new CartItem().setId(1L).setShoppingCart(shoppingCart)
+                .setBook(firstBook).setQuantity(8);
+        CartItem secondItem = new CartItem().setId(2L).setShoppingCart(shoppingCart)
+                .setBook(secondBook).setQuantity(3);
+        CreateCartItemsRequestDto requestDto = new CreateCartItemsRequestDto().setItems(List.of(
+                new CreateShoppingCartRequestDto().setBookId(1L).setQuantity(2),
+                new CreateShoppingCartRequestDto().setBookId(2L).setQuantity(3),
+                new CreateShoppingCartRequestDto().setBookId(1L).setQuantity(1)));
+
+        when(bookRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(firstBook, secondBook));
+        when(shoppingCartJdbcRepository.findOrCreateCartId(user.getId()))
+                .thenReturn(shoppingCart.getId());
+        when(cartItemRepository.findAllByShoppingCartIdAndBookIdIn(shoppingCart.getId(),
+                Set.of(1L, 2L))).thenReturn(List.of(firstItem, secondItem));
+        when(cartItemMapper.toDto(any(CartItem.class))).thenReturn(new CartItemDto());
+
+        List<CartItemDto> actual = shoppingCartService.addItemsToCart(user, requestDto);
+
+        verify(shoppingCartJdbcRepository).addQuantities(shoppingCart.getId(), Map.of(1L, 3, 2L, 3));
+        verify(cartItemRepository, never()).saveAll(anyList());
+        assertEquals(2, actual.size());
     }
 
     @Test
-    void addItemToCart_BookNotFound_ThrowsException() {
+    void addItemsToCart_BooksNotFound_ThrowsException() {
         User user = createUser();
-        CreateShoppingCartRequestDto shoppingCartRequestDto = new CreateShoppingCartRequestDto()
-                .setBookId(-2L)
-                .setQuantity(1);
+        CreateCartItemsRequestDto requestDto = new CreateCartItemsRequestDto().setItems(List.of(
+                new CreateShoppingCartRequestDto().setBookId(1L).setQuantity(1),
+                new CreateShoppingCartRequestDto().setBookId(-2L).setQuantity(1)));
 
-        when(bookRepository.findById(shoppingCartRequestDto.getBookId())).thenReturn(Optional.empty());
+        when(bookRepository.findAllById(Set.of(1L, -2L))).thenReturn(List.of(createBook()));
 
         Exception exception = assertThrows(EntityNotFoundException.class,
-                () -> shoppingCartService.addItemToCart(user, shoppingCartRequestDto));
-        assertEquals("Item with id " + shoppingCartRequestDto.getBookId()
-                + " not found", exception.getMessage());
+                () -> shoppingCartService.addItemsToCart(user, requestDto));
+        assertEquals("Items with ids [-2] not found", exception.getMessage());
+        verify(shoppingCartJdbcRepository, never()).addQuantities(any(), any());
     }
 
     @Test
@@ -0,0 +1,184 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import book.store.dto.book.BookStockDto;
+import book.store.dto.book.UpdateBookStockRequestDto;
+import book.store.exception.EntityNotFoundException;
+import book.store.exception.QuantityTooLowException;
+import book.store.repository.book.BookStockJdbcRepository;
+import book.store.service.impl.StockServiceImpl;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class StockServiceTest {
+    private static final Long HOT_BOOK_ID = 1L;
+
+    @Mock
+    private BookStockJdbcRepository bookStockJdbcRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockServiceImpl stockService;
+
+    @BeforeEach
+    void setUp() {
+        stockService = new StockServiceImpl(bookStockJdbcRepository, transactionManager,
+                Runnable::run, Set.of(HOT_BOOK_ID), 50);
+    }
+
+    @Test
+    void updateStock_AbsoluteStock_SetsStock() {
+        when(bookStockJdbcRepository.setStock(2L, 40)).thenReturn(true);
+        when(bookStockJdbcRepository.findStock(2L)).thenReturn(Optional.of(40));
+
+        BookStockDto actual = stockService.updateStock(2L,
+                new UpdateBookStockRequestDto().setStock(40));
+
+        assertEquals(new BookStockDto(2L, 40), actual);
+    }
+
+    @Test
+    void updateStock_DeltaBelowZero_ThrowsException() {
+        when(bookStockJdbcRepository.addStock(2L, -5)).thenReturn(false);
+        when(bookStockJdbcRepository.findStock(2L)).thenReturn(Optional.of(3));
+
+        Exception exception = assertThrows(QuantityTooLowException.class,
+                () -> stockService.updateStock(2L, new UpdateBookStockRequestDto().setDelta(-5)));
+
+        assertEquals("Stock of book with id 2 can't go below zero", exception.getMessage());
+    }
+
+    @Test
+    void updateStock_UnknownBook_ThrowsException() {
+        when(bookStockJdbcRepository.addStock(99L, 5)).thenReturn(false);
+        when(bookStockJdbcRepository.findStock(99L)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> stockService.updateStock(99L, new UpdateBookStockRequestDto().setDelta(5)));
+    }
+
+    @Test
+    void reserve_RegularBooks_ReservesInDatabase() {
+        when(bookStockJdbcRepository.reserve(Map.of(2L, 1, 3L, 4))).thenReturn(List.of());
+
+        stockService.reserve(Map.of(2L, 1, 3L, 4));
+
+        verify(bookStockJdbcRepository).reserve(Map.of(2L, 1, 3L, 4));
+    }
+
+    @Test
+    void reserve_RegularBookOutOfStock_ThrowsException() {
+        when(bookStockJdbcRepository.reserve(Map.of(2L, 1, 3L, 4))).thenReturn(List.of(3L));
+
+        Exception exception = assertThrows(QuantityTooLowException.class,
+                () -> stockService.reserve(Map.of(2L, 1, 3L, 4)));
+
+        assertEquals("Not enough stock for books with ids [3]", exception.getMessage());
+    }
+
+    @Test
+    void reserve_HotBook_ReservesFirstOrderInDatabaseThenServesFromMemory() {
+        when(bookStockJdbcRepository.takeUpTo(HOT_BOOK_ID, 50)).thenReturn(50);
+        when(bookStockJdbcRepository.allocate(HOT_BOOK_ID, 50)).thenReturn(7L);
+
+        Map<Long, Long> first = stockService.reserve(Map.of(HOT_BOOK_ID, 2));
+        for (int i = 0; i < 24; i++) {
+            stockService.reserve(Map.of(HOT_BOOK_ID, 2));
+        }
+        Map<Long, Long> actual = stockService.reserve(Map.of(HOT_BOOK_ID, 2, 2L, 1));
+
+        assertEquals(Map.of(), first);
+        assertEquals(Map.of(HOT_BOOK_ID, 7L), actual);
+        verify(bookStockJdbcRepository, times(1)).takeUpTo(HOT_BOOK_ID, 50);
+        verify(bookStockJdbcRepository).reserve(Map.of(HOT_BOOK_ID, 2));
+        verify(bookStockJdbcRepository).reserve(Map.of(2L, 1));
+    }
+
+    @Test
+    void reserve_HotBookAlmostSoldOut_ThrowsExceptionAndKeepsRemainder() {
+        when(bookStockJdbcRepository.takeUpTo(HOT_BOOK_ID, 50)).thenReturn(3);
+        when(bookStockJdbcRepository.allocate(HOT_BOOK_ID, 3)).thenReturn(7L);
+        when(bookStockJdbcRepository.reserve(Map.of(HOT_BOOK_ID, 5)))
+                .thenReturn(List.of(HOT_BOOK_ID));
+
+        assertThrows(QuantityTooLowException.class,
+                () -> stockService.reserve(Map.of(HOT_BOOK_ID, 5)));
+        Map<Long, Long> actual = stockService.reserve(Map.of(HOT_BOOK_ID, 3));
+
+        assertEquals(Map.of(HOT_BOOK_ID, 7L), actual);
+        verify(bookStockJdbcRepository, times(1)).takeUpTo(HOT_BOOK_ID, 50);
+    }
+
+    @Test
+    void reserve_HotBookSoldOut_DoesNotRecordAllocation() {
+        when(bookStockJdbcRepository.takeUpTo(HOT_BOOK_ID, 50)).thenReturn(0);
+        when(bookStockJdbcRepository.reserve(Map.of(HOT_BOOK_ID, 1)))
+                .thenReturn(List.of(HOT_BOOK_ID));
+
+        assertThrows(QuantityTooLowException.class,
+                () -> stockService.reserve(Map.of(HOT_BOOK_ID, 1)));
+
+        verify(bookStockJdbcRepository, never()).allocate(any(), anyInt());
+    }
+
+    @Test
+    void reserve_RegularBookOutOfStock_ReturnsHotUnitsToMemory() {
+        when(bookStockJdbcRepository.takeUpTo(HOT_BOOK_ID, 50)).thenReturn(50);
+        when(bookStockJdbcRepository.allocate(HOT_BOOK_ID, 50)).thenReturn(7L);
+        when(bookStockJdbcRepository.reserve(Map.of(HOT_BOOK_ID, 1))).thenReturn(List.of());
+        when(bookStockJdbcRepository.reserve(Map.of(2L, 1))).thenReturn(List.of(2L));
+
+        stockService.reserve(Map.of(HOT_BOOK_ID, 1));
+        assertThrows(QuantityTooLowException.class,
+                () -> stockService.reserve(Map.of(HOT_BOOK_ID, 10, 2L, 1)));
+        Map<Long, Long> actual = stockService.reserve(Map.of(HOT_BOOK_ID, 50));
+
+        assertEquals(Map.of(HOT_BOOK_ID, 7L), actual);
+        verify(bookStockJdbcRepository, times(1)).takeUpTo(HOT_BOOK_ID, 50);
+    }
+
+    @Test
+    void returnUnusedAllocations_AllocationsLeftByCrash_ReleasesUnusedAndDeletesThem() {
+        when(bookStockJdbcRepository.findUnusedAllocations())
+                .thenReturn(Map.of(HOT_BOOK_ID, 30, 2L, 0));
+
+        stockService.returnUnusedAllocations();
+
+        verify(bookStockJdbcRepository).release(Map.of(HOT_BOOK_ID, 30));
+        verify(bookStockJdbcRepository).deleteAllocations();
+    }
+
+    @Test
+    void returnHotStock_AllocationInMemory_StopsServingFromMemory() {
+        when(bookStockJdbcRepository.takeUpTo(HOT_BOOK_ID, 50)).thenReturn(50);
+        when(bookStockJdbcRepository.allocate(HOT_BOOK_ID, 50)).thenReturn(7L);
+        when(bookStockJdbcRepository.findUnusedAllocations()).thenReturn(Map.of(HOT_BOOK_ID, 40));
+
+        stockService.reserve(Map.of(HOT_BOOK_ID, 1));
+        stockService.reserve(Map.of(HOT_BOOK_ID, 10));
+        stockService.returnHotStock();
+        Map<Long, Long> actual = stockService.reserve(Map.of(HOT_BOOK_ID, 1));
+
+        verify(bookStockJdbcRepository).release(Map.of(HOT_BOOK_ID, 40));
+        assertEquals(Map.of(), actual);
+        verify(bookStockJdbcRepository, times(2)).reserve(Map.of(HOT_BOOK_ID, 1));
+        verify(bookStockJdbcRepository, times(1)).takeUpTo(HOT_BOOK_ID, 50);
+    }
+}
@@ -0,0 +1,73 @@
+package book.store.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import book.store.exception.EntityNotFoundException;
+import book.store.model.User;
+import book.store.repository.user.UserRepository;
+import book.store.service.impl.UserServiceImpl;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserCache;
+
+@ExtendWith(MockitoExtension.class)
+public class UserServiceTest {
+
+    @InjectMocks
+    private UserServiceImpl userService;
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserCache userCache;
+
+    @Test
+    void getUserByEmail_CachedUser_SkipsDatabase() {
+        User user = createUser();
+        when(userCache.getUserFromCache(user.getEmail())).thenReturn(user);
+
+        User actual = userService.getUserByEmail(user.getEmail());
+
+        assertSame(user, actual);
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void getUserByEmail_NotCached_LoadsFromDatabase() {
+        User user = createUser();
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        User actual = userService.getUserByEmail(user.getEmail());
+
+        assertSame(user, actual);
+    }
+
+    @Test
+    void getUserByEmail_UnknownEmail_ThrowsException() {
+        when(userRepository.findByEmail("unknown@test.com")).thenReturn(Optional.empty());
+
+        Exception exception = assertThrows(EntityNotFoundException.class,
+                () -> userService.getUserByEmail("unknown@test.com"));
+
+        assertEquals("User with email unknown@test.com not found", exception.getMessage());
+    }
+
+    private User createUser() {
+        return new User()
+                .setId(1L)
+                .setEmail("mail@test.com")
+                .setPassword("password")
+                .setFirstName("John")
+                .setLastName("Doe");
+    }
+}
@@ -0,0 +1,3 @@
+INSERT INTO books (id, title, author, isbn, price, description, cover_image, is_deleted) VALUES (101, 'Arrakis Chronicles', 'Frank Herbert', '9780000000101', 15.00, 'Spice and sandworms of Arrakis, the desert planet Arrakis', NULL, false);
+INSERT INTO books (id, title, author, isbn, price, description, cover_image, is_deleted) VALUES (102, 'Desert Travels', 'Paul Atreides', '9780000000102', 12.00, 'A short stop on Arrakis among other deserts', NULL, false);
+INSERT INTO books (id, title, author, isbn, price, description, cover_image, is_deleted) VALUES (103, 'Ocean Stories', 'Duncan Idaho', '9780000000103', 9.00, 'Sailing the seas of Caladan', NULL, false);
@@ -0,0 +1,13 @@
+UPDATE books SET stock = 5 WHERE id = 1;
+UPDATE books SET stock = 3 WHERE id = 2;
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (301, 1, 'PENDING', 450.00, '2024-06-01 10:00:00', 'ul.Java 1, Warsaw, Poland', false);
+INSERT INTO book_stock_allocations (id, book_id, quantity) VALUES (401, 1, 50);
+INSERT INTO book_stock_allocations (id, book_id, quantity) VALUES (402, 1, 20);
+INSERT INTO book_stock_allocations (id, book_id, quantity) VALUES (403, 2, 10);
+INSERT INTO order_items (id, order_id, book_id, quantity, price, stock_allocation_id)
+VALUES (501, 301, 1, 30, 10.00, 401);
+INSERT INTO order_items (id, order_id, book_id, quantity, price, stock_allocation_id)
+VALUES (502, 301, 1, 5, 10.00, 402);
+INSERT INTO order_items (id, order_id, book_id, quantity, price, stock_allocation_id)
+VALUES (503, 301, 2, 10, 10.00, 403);
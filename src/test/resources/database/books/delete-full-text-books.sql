@@ -0,0 +1 @@
+DELETE FROM books WHERE id IN (101, 102, 103);
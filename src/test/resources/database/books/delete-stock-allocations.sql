@@ -0,0 +1,4 @@
+DELETE FROM order_items WHERE id IN (501, 502, 503);
+DELETE FROM book_stock_allocations WHERE id IN (401, 402, 403);
+DELETE FROM orders WHERE id = 301;
+UPDATE books SET stock = 100 WHERE id IN (1, 2);
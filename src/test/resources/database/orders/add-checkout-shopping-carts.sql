@@ -0,0 +1,11 @@
+INSERT INTO users (id, email, password, first_name, last_name, shipping_address, is_deleted)
+VALUES (3, 'warm.up@bookstore.com', 'password', 'Warm', 'Up', 'ul.Java 1, Warsaw, Poland', false);
+INSERT INTO shopping_carts (id, user_id) VALUES (1, 1);
+INSERT INTO shopping_carts (id, user_id) VALUES (2, 2);
+INSERT INTO shopping_carts (id, user_id) VALUES (3, 3);
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (1, 1, 1, 1);
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (2, 2, 1, 1);
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (3, 2, 2, 2);
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (4, 2, 3, 3);
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (5, 2, 4, 4);
+INSERT INTO cart_items (id, shopping_cart_id, book_id, quantity) VALUES (6, 3, 1, 1);
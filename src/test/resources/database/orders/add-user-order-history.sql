@@ -0,0 +1,10 @@
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (201, 1, 'COMPLETED', 10.00, '2024-01-01 10:00:00', 'ul.Java 1, Warsaw, Poland', false);
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (202, 1, 'PENDING', 20.00, '2024-02-01 10:00:00', 'ul.Java 1, Warsaw, Poland', false);
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (203, 1, 'DELIVERED', 30.00, '2024-03-01 10:00:00', 'ul.Java 1, Warsaw, Poland', false);
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (204, 1, 'PENDING', 40.00, '2024-04-01 10:00:00', 'ul.Java 1, Warsaw, Poland', true);
+INSERT INTO orders (id, user_id, status, total, order_date, shipping_address, is_deleted)
+VALUES (205, 2, 'PENDING', 50.00, '2024-05-01 10:00:00', 'ul.Java 2, Warsaw, Poland', false);
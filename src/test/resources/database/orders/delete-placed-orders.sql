@@ -0,0 +1,5 @@
+DELETE FROM order_items WHERE order_id IN (SELECT id FROM orders WHERE user_id IN (1, 2, 3));
+DELETE FROM orders WHERE user_id IN (1, 2, 3);
+DELETE FROM cart_items WHERE shopping_cart_id IN (1, 2, 3);
+DELETE FROM shopping_carts WHERE user_id IN (1, 2, 3);
+DELETE FROM users WHERE id = 3;
@@ -0,0 +1 @@
+DELETE FROM orders WHERE id IN (201, 202, 203, 204, 205);